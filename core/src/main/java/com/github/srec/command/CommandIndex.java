@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The index of the {@link SRecCommand} classes generated at compile time by srec-processor. Each jar or classes
+ * directory has its own <code>META-INF/srec/commands</code> file with one <code>command_name=class.Name</code> line per
+ * command.
+ *
+ * @author Victor Tatai
+ */
+public class CommandIndex {
+    private static final Logger log = Logger.getLogger(CommandIndex.class);
+    public static final String INDEX_RESOURCE = "META-INF/srec/commands";
+
+    /**
+     * Command name to class name.
+     */
+    private final Map<String, String> commands = new LinkedHashMap<String, String>();
+    /**
+     * The URLs of the classpath roots which have an index.
+     */
+    private final Set<String> roots = new HashSet<String>();
+
+    /**
+     * Reads all the command indexes visible to the class loader.
+     *
+     * @param loader The class loader
+     * @return The merged index, empty if there are no indexes
+     * @throws IOException in case an index cannot be read
+     */
+    public static CommandIndex load(ClassLoader loader) throws IOException {
+        CommandIndex index = new CommandIndex();
+        Enumeration<URL> urls = loader.getResources(INDEX_RESOURCE);
+        while (urls.hasMoreElements()) {
+            index.read(urls.nextElement());
+        }
+        return index;
+    }
+
+    private void read(URL url) throws IOException {
+        log.debug("Reading command index: " + url);
+        String location = url.toString();
+        if (location.endsWith(INDEX_RESOURCE)) {
+            roots.add(location.substring(0, location.length() - INDEX_RESOURCE.length()));
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) continue;
+                int separator = line.indexOf('=');
+                if (separator == -1) {
+                    log.warn("Invalid line in command index " + url + ": " + line);
+                    continue;
+                }
+                String name = line.substring(0, separator).trim();
+                String className = line.substring(separator + 1).trim();
+                String previous = commands.get(name);
+                if (previous != null && !previous.equals(className)) {
+                    log.warn("Command " + name + " indexed by both " + previous + " and " + className
+                            + ", ignoring the latter");
+                    continue;
+                }
+                commands.put(name, className);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Gets the indexed commands whose classes are in the given package or in one of its sub packages.
+     *
+     * @param packageName The package name
+     * @return The command names mapped to their class names, empty if the package is not indexed
+     */
+    public Map<String, String> getCommands(String packageName) {
+        String prefix = packageName + ".";
+        Map<String, String> ret = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, String> entry : commands.entrySet()) {
+            if (entry.getValue().startsWith(prefix)) ret.put(entry.getKey(), entry.getValue());
+        }
+        return ret;
+    }
+
+    /**
+     * Gets the classpath roots which have an index, whose commands do not need to be scanned for.
+     *
+     * @return The root URLs, such as <code>file:/app/classes/</code> or <code>jar:file:/app/lib/cmds.jar!/</code>
+     */
+    public Set<String> getRoots() {
+        return Collections.unmodifiableSet(roots);
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+}
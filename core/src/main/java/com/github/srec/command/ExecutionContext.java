@@ -26,7 +26,8 @@ import java.util.*;
 
 /**
  * Represents a script execution context (EC), containing commands to be executed and a very simple symbol table which
- * contains method definitions.
+ * contains method definitions. The symbol table is layered on top of the symbols of the EC it was created from, see
+ * {@link SymbolTable}.
  * 
  * @author Victor Tatai
  */
@@ -34,7 +35,7 @@ public class ExecutionContext {
     private TestSuite testSuite;
     private TestCase testCase;
     private List<Command> commands = new ArrayList<Command>();
-    private Map<String, CommandSymbol> symbols = new HashMap<String, CommandSymbol>();
+    private SymbolTable symbols;
     /**
      * The player executing this EC.
      */
@@ -49,6 +50,11 @@ public class ExecutionContext {
     private List<String> loadPath = new ArrayList<String>();
 
     public ExecutionContext(TestSuite ts, TestCase tc, File file, String... loadPaths) {
+        this(new SymbolTable(), ts, tc, file, loadPaths);
+    }
+
+    ExecutionContext(SymbolTable symbols, TestSuite ts, TestCase tc, File file, String[] loadPaths) {
+        this.symbols = symbols;
         testSuite = ts;
         testCase = tc;
         this.file = file;
@@ -61,7 +67,9 @@ public class ExecutionContext {
     }
 
     /**
-     * Copy constructor, does a shallow copy of the commands, symbols and load path.
+     * Copy constructor, does a shallow copy of the commands and load path. The symbols are not copied, instead a new
+     * symbol layer is created on top of the other EC symbols, so symbols added to this EC are not seen by the other
+     * one.
      *
      * @param other The other execution context
      */
@@ -69,7 +77,7 @@ public class ExecutionContext {
         testSuite = other.testSuite;
         testCase = other.testCase;
         commands.addAll(other.getCommands());
-        symbols.putAll(other.getSymbols());
+        symbols = new SymbolTable(other.symbols);
         loadPath.addAll(other.getLoadPath());
     }
     
@@ -140,6 +148,11 @@ public class ExecutionContext {
         return loadPath;
     }
 
+    /**
+     * Gets all symbols visible in this EC symbol table, including the ones from the parent layers.
+     *
+     * @return The symbols
+     */
     public Map<String, CommandSymbol> getSymbols() {
         return symbols;
     }
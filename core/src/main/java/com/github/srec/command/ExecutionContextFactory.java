@@ -1,6 +1,7 @@
 package com.github.srec.command;
 
 import com.github.srec.SRecException;
+import com.github.srec.command.base.CommandSymbol;
 import com.github.srec.command.method.MethodCommand;
 import com.github.srec.util.ClasspathScanner;
 import com.github.srec.util.PropertiesReader;
@@ -10,6 +11,7 @@ import java.io.File;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -21,7 +23,15 @@ import java.util.Set;
 public class ExecutionContextFactory {
     private static final Logger log = Logger.getLogger(ExecutionContextFactory.class);
     private static ExecutionContextFactory instance;
+    /**
+     * The builtin commands found by scanning the classpath roots which have no index. Indexed commands are only
+     * created when first looked up.
+     */
     public List<MethodCommand> builtinCommands = new ArrayList<MethodCommand>();
+    /**
+     * The builtin commands layer, shared by all ECs created by this factory.
+     */
+    private SymbolTable builtinSymbols;
 
     private ExecutionContextFactory() {
     }
@@ -29,27 +39,45 @@ public class ExecutionContextFactory {
     private void init() throws Exception {
         Properties props = PropertiesReader.getProperties();
         String[] packagesToScan = props.getProperty(PropertiesReader.PACKAGES_TO_SCAN_PROPERTY_NAME).split("[ |,]+");
+        builtinSymbols = new SymbolTable();
+        CommandIndex index = CommandIndex.load(getLoader());
         for (String packageName : packagesToScan) {
-            scanPackage(new ClasspathScanner(), packageName);
+            Map<String, String> indexed = index.getCommands(packageName);
+            if (!indexed.isEmpty()) {
+                log.debug("Using command index for package: " + packageName);
+                for (Map.Entry<String, String> entry : indexed.entrySet()) {
+                    builtinSymbols.putLazy(entry.getKey(), new IndexedCommandLoader(entry.getKey(), entry.getValue()));
+                }
+            }
+            // Jars and directories without an index may have commands in the same package
+            scanPackage(new ClasspathScanner(), packageName, index.getRoots());
+        }
+        for (MethodCommand builtinCommand : builtinCommands) {
+            builtinSymbols.put(builtinCommand.getName(), builtinCommand);
         }
+        builtinSymbols.freeze();
     }
 
-    private void scanPackage(ClasspathScanner scanner, String packageName) throws Exception {
+    private void scanPackage(ClasspathScanner scanner, String packageName, Set<String> indexedRoots) throws Exception {
         log.debug("Scanning package: " + packageName);
         Set<? extends Class> classes = scanner.scanPackage(packageName,
-                new ClasspathScanner.AnnotatedClassSelector(SRecCommand.class));
+                new ClasspathScanner.AnnotatedClassSelector(SRecCommand.class), indexedRoots);
         for (Class cl: classes) {
             Constructor constructor = cl.getConstructor();
             builtinCommands.add((MethodCommand) constructor.newInstance());
         }
     }
 
-    public ExecutionContext create(TestSuite ts, TestCase tc, File file, String... loadPath) {
-        ExecutionContext ctx = new ExecutionContext(ts, tc, file, loadPath);
-        for (MethodCommand builtinCommand : builtinCommands) {
-            ctx.addSymbol(builtinCommand);
+    private static ClassLoader getLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = ExecutionContextFactory.class.getClassLoader();
         }
-        return ctx;
+        return loader;
+    }
+
+    public ExecutionContext create(TestSuite ts, TestCase tc, File file, String... loadPath) {
+        return new ExecutionContext(new SymbolTable(builtinSymbols), ts, tc, file, loadPath);
     }
 
     public static ExecutionContextFactory getInstance() {
@@ -63,4 +91,32 @@ public class ExecutionContextFactory {
         }
         return instance;
     }
+
+    /**
+     * Creates an indexed command the first time it is looked up.
+     */
+    private static class IndexedCommandLoader implements SymbolTable.Loader {
+        private final String name;
+        private final String className;
+
+        private IndexedCommandLoader(String name, String className) {
+            this.name = name;
+            this.className = className;
+        }
+
+        @Override
+        public CommandSymbol load() {
+            MethodCommand command;
+            try {
+                command = (MethodCommand) Class.forName(className, true, getLoader()).getConstructor().newInstance();
+            } catch (Exception e) {
+                throw new SRecException("Could not create command " + name + " of class " + className, e);
+            }
+            if (!name.equals(command.getName())) {
+                throw new SRecException("Command " + className + " is indexed as " + name + " but is named "
+                        + command.getName() + ", use @SRecCommand(\"" + command.getName() + "\")");
+            }
+            return command;
+        }
+    }
 }
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command;
+
+/**
+ * Marks the commands which only read the state of the application under test, such as assertions. The player may run
+ * consecutive read-only commands together in a single EDT task (see {@link com.github.srec.play.Player}), so they must
+ * not change the application, the EC or anything else, must give the same result if run twice, and must not depend on
+ * the thread they run in.
+ *
+ * @author Victor Tatai
+ */
+public interface ReadOnlyCommand {
+}
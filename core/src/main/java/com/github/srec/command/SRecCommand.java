@@ -7,10 +7,17 @@ import java.lang.annotation.Target;
 
 /**
  * Annotation to be used by commands which are to be included by default inside newly created execution contexts.
+ * Annotated classes are listed at compile time in an index (see srec-processor), which lets the commands be loaded
+ * only when they are first used.
  *
  * @author Victor Tatai
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SRecCommand {
+    /**
+     * The command name, only needed if it does not follow the class name, for instance "assert_cell" for
+     * AssertCellCommand.
+     */
+    String value() default "";
 }
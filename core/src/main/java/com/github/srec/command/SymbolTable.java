@@ -0,0 +1,222 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command;
+
+import com.github.srec.command.base.CommandSymbol;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A layered symbol table. Each table holds its own symbols and sees the symbols of its parent layers, which it may
+ * shadow but never modifies, so one parent can be shared by any number of tables. The usual layers are the builtin
+ * commands (frozen, shared by all ECs), the suite and the test case.<br><br>
+ *
+ * As a map this is a view of all visible symbols, writes go to the topmost layer only. Symbols may also be registered
+ * lazily with a {@link Loader}, in which case they are only created the first time they are looked up, and only listed
+ * by the map views after that.
+ *
+ * @author Victor Tatai
+ */
+public class SymbolTable extends AbstractMap<String, CommandSymbol> {
+    private final SymbolTable parent;
+    /**
+     * The symbols of this layer, created on the first write.
+     */
+    private Map<String, CommandSymbol> local;
+    /**
+     * The loaders of the lazy symbols of this layer which were not looked up yet.
+     */
+    private Map<String, Loader> loaders;
+    private boolean frozen;
+
+    public SymbolTable() {
+        this(null);
+    }
+
+    public SymbolTable(SymbolTable parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Prevents any further changes to this layer.
+     *
+     * @return This table
+     */
+    public SymbolTable freeze() {
+        frozen = true;
+        return this;
+    }
+
+    public SymbolTable getParent() {
+        return parent;
+    }
+
+    /**
+     * Registers a symbol which is only created when it is first looked up.
+     *
+     * @param name The symbol name
+     * @param loader The loader which creates the symbol
+     */
+    public synchronized void putLazy(String name, Loader loader) {
+        if (frozen) throw new UnsupportedOperationException("Symbol table is frozen");
+        // Lazy symbols are added to the layer while other threads may be reading it
+        local = local == null ? new ConcurrentHashMap<String, CommandSymbol>()
+                : new ConcurrentHashMap<String, CommandSymbol>(local);
+        if (loaders == null) loaders = new ConcurrentHashMap<String, Loader>();
+        loaders.put(name, loader);
+    }
+
+    @Override
+    public CommandSymbol get(Object name) {
+        for (SymbolTable table = this; table != null; table = table.parent) {
+            CommandSymbol symbol = table.local == null ? null : table.local.get(name);
+            if (symbol == null && table.loaders != null && table.loaders.containsKey(name)) symbol = table.load(name);
+            if (symbol != null) return symbol;
+        }
+        return null;
+    }
+
+    private synchronized CommandSymbol load(Object name) {
+        Loader loader = loaders.get(name);
+        if (loader == null) return local.get(name);
+        CommandSymbol symbol = loader.load();
+        local.put((String) name, symbol);
+        loaders.remove(name);
+        return symbol;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return get(name) != null;
+    }
+
+    @Override
+    public CommandSymbol put(String name, CommandSymbol symbol) {
+        if (frozen) throw new UnsupportedOperationException("Symbol table is frozen");
+        if (local == null) local = new HashMap<String, CommandSymbol>();
+        return local.put(name, symbol);
+    }
+
+    /**
+     * Removes a symbol from this layer only, symbols in the parent layers are not affected.
+     */
+    @Override
+    public CommandSymbol remove(Object name) {
+        if (frozen) throw new UnsupportedOperationException("Symbol table is frozen");
+        return local == null ? null : local.remove(name);
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Symbol tables cannot be cleared");
+    }
+
+    @Override
+    public Set<Entry<String, CommandSymbol>> entrySet() {
+        return new AbstractSet<Entry<String, CommandSymbol>>() {
+            @Override
+            public Iterator<Entry<String, CommandSymbol>> iterator() {
+                return new LayeredIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<Entry<String, CommandSymbol>> it = iterator(); it.hasNext(); it.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Creates a lazy symbol.
+     */
+    public interface Loader {
+        /**
+         * Creates the symbol.
+         *
+         * @return The symbol, never null
+         */
+        CommandSymbol load();
+    }
+
+    /**
+     * Iterates over the layers from the top, skipping the symbols shadowed by an upper layer.
+     */
+    private class LayeredIterator implements Iterator<Entry<String, CommandSymbol>> {
+        private SymbolTable layer = SymbolTable.this;
+        private Iterator<Entry<String, CommandSymbol>> current;
+        private Entry<String, CommandSymbol> next;
+
+        private LayeredIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (layer != null) {
+                if (current == null) {
+                    current = layer.local == null ? null : layer.local.entrySet().iterator();
+                    if (current == null) {
+                        layer = layer.parent;
+                        continue;
+                    }
+                }
+                while (current.hasNext()) {
+                    Entry<String, CommandSymbol> entry = current.next();
+                    if (!isShadowed(entry.getKey())) {
+                        next = entry;
+                        return;
+                    }
+                }
+                current = null;
+                layer = layer.parent;
+            }
+        }
+
+        private boolean isShadowed(String name) {
+            for (SymbolTable table = SymbolTable.this; table != layer; table = table.parent) {
+                if (table.local != null && table.local.containsKey(name)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, CommandSymbol> next() {
+            if (next == null) throw new NoSuchElementException();
+            Entry<String, CommandSymbol> entry = next;
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -12,6 +12,8 @@
  */
 package com.github.srec.command;
 
+import com.github.srec.play.SyncMode;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,10 @@ public class TestSuite {
     private String name;
     private List<TestCase> testCases = new ArrayList<TestCase>();
     private Map<String, Object> properties;
+    /**
+     * The sync mode used when playing this suite, null to use the player default.
+     */
+    private SyncMode syncMode;
 
     /**
      * Creates a test suite with the given name. <p/>
@@ -72,6 +78,19 @@ public class TestSuite {
     	return name;
     }
     
+    /**
+     * Returns the sync mode to be used when playing this suite. <p/>
+     * 
+     * @return the sync mode, null if the player default should be used.
+     */
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    public void setSyncMode(SyncMode syncMode) {
+        this.syncMode = syncMode;
+    }
+
     public Object getProperty(String key) {
         return properties.get(key);
     }
@@ -3,6 +3,7 @@ package com.github.srec.command.base;
 import com.github.srec.Location;
 import com.github.srec.command.ExecutionContext;
 import com.github.srec.command.exception.CommandExecutionException;
+import com.github.srec.command.expression.StringTemplate;
 import com.github.srec.command.value.*;
 import com.github.srec.command.value.StringValue;
 import com.github.srec.util.Utils;
@@ -62,6 +63,12 @@ public abstract class BaseCommand implements Command {
 		String str = value.toString();
 		if (str.indexOf("$") == -1 || context == null)
 			return str;
+		StringTemplate template = StringTemplate.get(str);
+		if (template != null) {
+			String rendered = template.render(context);
+			if (rendered != null)
+				return rendered;
+		}
 		return (String) Utils.groovyEvaluate(context, "\"" + str + "\"");
 	}
 
@@ -16,28 +16,45 @@ package com.github.srec.command.base;
 import com.github.srec.Location;
 import com.github.srec.command.ExecutionContext;
 import com.github.srec.command.exception.CommandExecutionException;
+import com.github.srec.command.expression.Expression;
+import com.github.srec.command.expression.ExpressionParser;
+import com.github.srec.command.expression.UnsupportedExpressionException;
 import com.github.srec.command.value.Value;
+import com.github.srec.util.Utils;
 
 import static com.github.srec.util.Utils.groovyEvaluateConvert;
 
 /**
+ * An expression. Simple expressions are compiled once and evaluated natively, anything else (or any evaluation the
+ * native code cannot handle) is evaluated by Groovy.
+ *
  * @author Victor Tatai
  */
 public class ExpressionCommand extends BaseCommand implements ValueCommand {
     private String expression;
+    private Expression compiled;
 
     public ExpressionCommand(String expression) {
         super(expression);
         this.expression = expression;
+        compiled = ExpressionParser.parse(expression);
     }
 
     public ExpressionCommand(String expression, Location location) {
         super(expression, location);
         this.expression = expression;
+        compiled = ExpressionParser.parse(expression);
     }
 
     @Override
     public Value getValue(ExecutionContext context) {
+        if (compiled != null) {
+            try {
+                return Utils.convertFromJava(compiled.evaluate(context));
+            } catch (UnsupportedExpressionException e) {
+                // Falls back to Groovy
+            }
+        }
         return groovyEvaluateConvert(context, expression);
     }
 
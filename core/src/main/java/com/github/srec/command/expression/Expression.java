@@ -0,0 +1,34 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.expression;
+
+import com.github.srec.command.ExecutionContext;
+
+/**
+ * A compiled srec expression which can be evaluated without Groovy.
+ *
+ * @author Victor Tatai
+ */
+public interface Expression {
+    /**
+     * Evaluates this expression. The result is the same Java object Groovy would have returned for the expression
+     * text, that is a BigDecimal, String, Boolean or null.
+     *
+     * @param context The EC, whose variables are visible to the expression
+     * @return The result
+     * @throws UnsupportedExpressionException in case the expression cannot be evaluated natively with the current
+     * variable values, in which case the caller should fall back to Groovy
+     */
+    Object evaluate(ExecutionContext context) throws UnsupportedExpressionException;
+}
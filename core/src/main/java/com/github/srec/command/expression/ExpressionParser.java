@@ -0,0 +1,481 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.expression;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.base.CommandSymbol;
+import com.github.srec.command.base.VarCommand;
+import com.github.srec.command.value.Value;
+import com.github.srec.util.Utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the simple subset of Groovy used by most srec expressions: number, string and boolean literals, null,
+ * variable references, parentheses, the arithmetic operators + - * /, the comparison operators == != &lt; &lt;= &gt;
+ * &gt;= and the boolean operators &amp;&amp; || !.<br><br>
+ *
+ * The compiled expressions follow Groovy semantics for the values srec variables can hold. Anything outside this
+ * subset is rejected, either at parse time (by returning null) or at evaluation time (by throwing an
+ * {@link UnsupportedExpressionException}), so that the caller can fall back to Groovy.
+ *
+ * @author Victor Tatai
+ */
+public final class ExpressionParser {
+    private static final String[] OPERATORS = {"&&", "||", "==", "!=", "<=", ">=", "<", ">", "+", "-", "*", "/", "!",
+            "(", ")"};
+    private static final String[] UNSUPPORTED_OPERATORS = {"==~", "=~", "<=>", "<<", ">>", "**", "++", "--", "->",
+            "*.", "!in", "!instanceof"};
+
+    private final List<String> tokens;
+    private int pos;
+
+    private ExpressionParser(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param text The expression text
+     * @return The compiled expression, null if the expression is not supported and should be evaluated by Groovy
+     */
+    public static Expression parse(String text) {
+        if (text == null) return null;
+        List<String> tokens = tokenize(text);
+        if (tokens == null || tokens.isEmpty()) return null;
+        ExpressionParser parser = new ExpressionParser(tokens);
+        Expression expression = parser.parseOr();
+        if (expression == null || parser.pos != tokens.size()) return null;
+        return expression;
+    }
+
+    // TOKENIZER -----------------------------------------------------------------------------------
+
+    /**
+     * Splits the text into tokens. String literals keep their quotes so they can be told apart from identifiers.
+     *
+     * @param text The text
+     * @return The tokens, null if there is an unsupported character
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<String>();
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && Character.isDigit(text.charAt(i))) i++;
+                if (i + 1 < length && text.charAt(i) == '.' && Character.isDigit(text.charAt(i + 1))) {
+                    i++;
+                    while (i < length && Character.isDigit(text.charAt(i))) i++;
+                }
+                // Suffixes, exponents and method calls on literals are left to Groovy
+                if (i < length && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '.')) return null;
+                tokens.add(text.substring(start, i));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_')) i++;
+                tokens.add(text.substring(start, i));
+            } else if (c == '\'' || c == '"') {
+                int end = findStringEnd(text, i);
+                if (end == -1) return null;
+                tokens.add(text.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                String operator = matchOperator(text, i);
+                if (operator == null) return null;
+                tokens.add(operator);
+                i += operator.length();
+            }
+        }
+        return tokens;
+    }
+
+    private static int findStringEnd(String text, int start) {
+        char quote = text.charAt(start);
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            } else if (c == '$' && quote == '"') {
+                // GString
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static String matchOperator(String text, int i) {
+        // Avoids mistaking Groovy operators such as ==~, <=>, ** or ++ for supported ones
+        for (String operator : UNSUPPORTED_OPERATORS) {
+            if (text.startsWith(operator, i)) return null;
+        }
+        for (String operator : OPERATORS) {
+            if (text.startsWith(operator, i)) return operator;
+        }
+        return null;
+    }
+
+    // PARSER --------------------------------------------------------------------------------------
+
+    private String peek() {
+        return pos < tokens.size() ? tokens.get(pos) : null;
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private Expression parseOr() {
+        Expression left = parseAnd();
+        while (left != null && accept("||")) {
+            left = binary("||", left, parseAnd());
+        }
+        return left;
+    }
+
+    private Expression parseAnd() {
+        Expression left = parseEquality();
+        while (left != null && accept("&&")) {
+            left = binary("&&", left, parseEquality());
+        }
+        return left;
+    }
+
+    private Expression parseEquality() {
+        Expression left = parseRelational();
+        while (left != null && ("==".equals(peek()) || "!=".equals(peek()))) {
+            String operator = tokens.get(pos++);
+            left = binary(operator, left, parseRelational());
+        }
+        return left;
+    }
+
+    private Expression parseRelational() {
+        Expression left = parseAdditive();
+        while (left != null && ("<".equals(peek()) || "<=".equals(peek()) || ">".equals(peek())
+                || ">=".equals(peek()))) {
+            String operator = tokens.get(pos++);
+            left = binary(operator, left, parseAdditive());
+        }
+        return left;
+    }
+
+    private Expression parseAdditive() {
+        Expression left = parseMultiplicative();
+        while (left != null && ("+".equals(peek()) || "-".equals(peek()))) {
+            String operator = tokens.get(pos++);
+            left = binary(operator, left, parseMultiplicative());
+        }
+        return left;
+    }
+
+    private Expression parseMultiplicative() {
+        Expression left = parseUnary();
+        while (left != null && ("*".equals(peek()) || "/".equals(peek()))) {
+            String operator = tokens.get(pos++);
+            left = binary(operator, left, parseUnary());
+        }
+        return left;
+    }
+
+    private Expression parseUnary() {
+        if (accept("!")) {
+            Expression operand = parseUnary();
+            return operand == null ? null : new NotExpression(operand);
+        }
+        if (accept("-")) {
+            Expression operand = parseUnary();
+            return operand == null ? null : new NegateExpression(operand);
+        }
+        return parsePrimary();
+    }
+
+    private Expression parsePrimary() {
+        String token = peek();
+        if (token == null) return null;
+        pos++;
+        if ("(".equals(token)) {
+            Expression inner = parseOr();
+            if (inner == null || !accept(")")) return null;
+            return inner;
+        }
+        char first = token.charAt(0);
+        if (Character.isDigit(first)) {
+            // Groovy reads integer literals with leading zeroes as octal
+            if (first == '0' && token.length() > 1 && token.indexOf('.') == -1) return null;
+            return new LiteralExpression(new BigDecimal(token));
+        }
+        if (first == '\'' || first == '"') {
+            String str = unescape(token.substring(1, token.length() - 1));
+            return str == null ? null : new LiteralExpression(str);
+        }
+        if ("true".equals(token)) return new LiteralExpression(Boolean.TRUE);
+        if ("false".equals(token)) return new LiteralExpression(Boolean.FALSE);
+        if ("null".equals(token)) return new LiteralExpression(null);
+        if (Character.isLetter(first) || first == '_') return new VariableExpression(token);
+        return null;
+    }
+
+    private static String unescape(String str) {
+        if (str.indexOf('\\') == -1) return str;
+        StringBuilder strb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c != '\\') {
+                strb.append(c);
+                continue;
+            }
+            char next = str.charAt(++i);
+            switch (next) {
+                case 'n': strb.append('\n'); break;
+                case 't': strb.append('\t'); break;
+                case 'r': strb.append('\r'); break;
+                case '\\': strb.append('\\'); break;
+                case '\'': strb.append('\''); break;
+                case '"': strb.append('"'); break;
+                default: return null;
+            }
+        }
+        return strb.toString();
+    }
+
+    private static Expression binary(String operator, Expression left, Expression right) {
+        if (right == null) return null;
+        if ("||".equals(operator)) return new OrExpression(left, right);
+        if ("&&".equals(operator)) return new AndExpression(left, right);
+        if ("==".equals(operator)) return new EqualsExpression(left, right, false);
+        if ("!=".equals(operator)) return new EqualsExpression(left, right, true);
+        if ("+".equals(operator)) return new PlusExpression(left, right);
+        return new BinaryExpression(operator, left, right);
+    }
+
+    // EVALUATION ----------------------------------------------------------------------------------
+
+    /**
+     * Groovy truth for the values srec variables can hold.
+     */
+    private static boolean asBoolean(Object o) {
+        if (o == null) return false;
+        if (o instanceof Boolean) return (Boolean) o;
+        if (o instanceof BigDecimal) return ((BigDecimal) o).signum() != 0;
+        if (o instanceof String) return ((String) o).length() > 0;
+        throw new UnsupportedExpressionException("No boolean conversion for " + o.getClass().getName());
+    }
+
+    private static BigDecimal asNumber(Object o) {
+        if (o instanceof BigDecimal) return (BigDecimal) o;
+        throw new UnsupportedExpressionException("Not a number: " + o);
+    }
+
+    private static class LiteralExpression implements Expression {
+        private final Object value;
+
+        private LiteralExpression(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            return value;
+        }
+    }
+
+    private static class VariableExpression implements Expression {
+        private final String name;
+
+        private VariableExpression(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            // Mirrors Utils.groovyEvaluate, which binds only the variables declared in the context itself
+            CommandSymbol symbol = context.getSymbols().get(name);
+            if (!(symbol instanceof VarCommand)) throw new UnsupportedExpressionException("Not a variable: " + name);
+            Value value = ((VarCommand) symbol).getValue(context);
+            if (value == null) throw new UnsupportedExpressionException("Variable without value: " + name);
+            switch (value.getType()) {
+                case STRING:
+                case NUMBER:
+                case BOOLEAN:
+                case NIL:
+                    return Utils.convertToJava(value);
+                default:
+                    throw new UnsupportedExpressionException("Unsupported variable type " + value.getType());
+            }
+        }
+    }
+
+    private static class NotExpression implements Expression {
+        private final Expression operand;
+
+        private NotExpression(Expression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            return !asBoolean(operand.evaluate(context));
+        }
+    }
+
+    private static class NegateExpression implements Expression {
+        private final Expression operand;
+
+        private NegateExpression(Expression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            return asNumber(operand.evaluate(context)).negate();
+        }
+    }
+
+    private static class OrExpression implements Expression {
+        private final Expression left;
+        private final Expression right;
+
+        private OrExpression(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            return asBoolean(left.evaluate(context)) || asBoolean(right.evaluate(context));
+        }
+    }
+
+    private static class AndExpression implements Expression {
+        private final Expression left;
+        private final Expression right;
+
+        private AndExpression(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            return asBoolean(left.evaluate(context)) && asBoolean(right.evaluate(context));
+        }
+    }
+
+    private static class EqualsExpression implements Expression {
+        private final Expression left;
+        private final Expression right;
+        private final boolean negated;
+
+        private EqualsExpression(Expression left, Expression right, boolean negated) {
+            this.left = left;
+            this.right = right;
+            this.negated = negated;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            return equal(left.evaluate(context), right.evaluate(context)) != negated;
+        }
+
+        private boolean equal(Object l, Object r) {
+            if (l == null || r == null) return l == r;
+            if (l instanceof BigDecimal && r instanceof BigDecimal) {
+                return ((BigDecimal) l).compareTo((BigDecimal) r) == 0;
+            }
+            if (l.getClass() != r.getClass()) {
+                throw new UnsupportedExpressionException("Comparing " + l.getClass() + " to " + r.getClass());
+            }
+            return l.equals(r);
+        }
+    }
+
+    private static class PlusExpression implements Expression {
+        private final Expression left;
+        private final Expression right;
+
+        private PlusExpression(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(ExecutionContext context) {
+            Object l = left.evaluate(context);
+            Object r = right.evaluate(context);
+            if (l instanceof String) return l + String.valueOf(r);
+            if (l instanceof BigDecimal && r instanceof String) return l + (String) r;
+            return asNumber(l).add(asNumber(r));
+        }
+    }
+
+    private static class BinaryExpression implements Expression {
+        private final char operator;
+        private final boolean orEqual;
+        private final Expression left;
+        private final Expression right;
+
+        private BinaryExpression(String operator, Expression left, Expression right) {
+            this.operator = operator.charAt(0);
+            this.orEqual = operator.length() == 2;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        public Object evaluate(ExecutionContext context) {
+            Object l = left.evaluate(context);
+            Object r = right.evaluate(context);
+            if (operator == '<' || operator == '>') {
+                if (l == null || r == null || l.getClass() != r.getClass() || !(l instanceof Comparable)) {
+                    throw new UnsupportedExpressionException("Cannot compare " + l + " to " + r);
+                }
+                int comparison = ((Comparable<Object>) l).compareTo(r);
+                if (comparison == 0) return orEqual;
+                return operator == '<' ? comparison < 0 : comparison > 0;
+            }
+            BigDecimal a = asNumber(l);
+            BigDecimal b = asNumber(r);
+            switch (operator) {
+                case '-':
+                    return a.subtract(b);
+                case '*':
+                    return a.multiply(b);
+                case '/':
+                    try {
+                        return a.divide(b);
+                    } catch (ArithmeticException e) {
+                        // Non terminating division (or division by zero), Groovy has its own rounding rules
+                        throw new UnsupportedExpressionException("Inexact division " + a + " / " + b);
+                    }
+                default:
+                    throw new UnsupportedExpressionException("Unsupported operator " + operator);
+            }
+        }
+    }
+}
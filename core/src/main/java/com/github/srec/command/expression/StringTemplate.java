@@ -0,0 +1,162 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.expression;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.base.CommandSymbol;
+import com.github.srec.command.base.VarCommand;
+import com.github.srec.command.value.Value;
+import com.github.srec.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parsed string interpolation template, supporting the <code>${var}</code> and <code>$var</code> forms. Templates
+ * are parsed once per text and cached.<br><br>
+ *
+ * Rendering produces the same string Groovy would for the equivalent GString. Texts using any other GString feature
+ * (expressions or property paths inside the placeholders, escapes, quotes) are not supported and must be evaluated by
+ * Groovy, as must texts referring to undefined variables or to variables holding dates or Java objects.
+ *
+ * @author Victor Tatai
+ */
+public final class StringTemplate {
+    private static final int MAX_CACHE_SIZE = 1000;
+    /**
+     * Marks texts which cannot be rendered natively, so that they are not parsed again.
+     */
+    private static final StringTemplate UNSUPPORTED = new StringTemplate(new String[0], new boolean[0]);
+    private static final LruCache<String, StringTemplate> cache = new LruCache<String, StringTemplate>(MAX_CACHE_SIZE);
+
+    /**
+     * The literal texts and variable names, in order.
+     */
+    private final String[] parts;
+    /**
+     * For each part, true if it is a variable name.
+     */
+    private final boolean[] variables;
+
+    private StringTemplate(String[] parts, boolean[] variables) {
+        this.parts = parts;
+        this.variables = variables;
+    }
+
+    /**
+     * Gets the template for the given text, parsing it if it is not cached.
+     *
+     * @param text The text
+     * @return The template, null if the text is not supported
+     */
+    public static StringTemplate get(String text) {
+        StringTemplate template = cache.get(text);
+        if (template == null) {
+            template = parse(text);
+            cache.put(text, template);
+        }
+        return template == UNSUPPORTED ? null : template;
+    }
+
+    private static StringTemplate parse(String text) {
+        List<String> parts = new ArrayList<String>();
+        List<Boolean> variables = new ArrayList<Boolean>();
+        int length = text.length();
+        int literalStart = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            // The text is quoted before being handed over to Groovy, so these would change its meaning
+            if (c == '\\' || c == '"') return UNSUPPORTED;
+            if (c != '$') {
+                i++;
+                continue;
+            }
+            if (i > literalStart) {
+                parts.add(text.substring(literalStart, i));
+                variables.add(false);
+            }
+            boolean braces = i + 1 < length && text.charAt(i + 1) == '{';
+            int nameStart = braces ? i + 2 : i + 1;
+            int nameEnd = nameStart;
+            if (nameEnd >= length || !Character.isJavaIdentifierStart(text.charAt(nameEnd))
+                    || text.charAt(nameEnd) == '$') {
+                return UNSUPPORTED;
+            }
+            while (nameEnd < length && Character.isJavaIdentifierPart(text.charAt(nameEnd))
+                    && text.charAt(nameEnd) != '$') {
+                nameEnd++;
+            }
+            if (braces) {
+                if (nameEnd >= length || text.charAt(nameEnd) != '}') return UNSUPPORTED;
+                i = nameEnd + 1;
+            } else {
+                // Groovy reads $a.b as a property path
+                if (nameEnd < length && text.charAt(nameEnd) == '.') return UNSUPPORTED;
+                i = nameEnd;
+            }
+            parts.add(text.substring(nameStart, nameEnd));
+            variables.add(true);
+            literalStart = i;
+        }
+        if (literalStart < length) {
+            parts.add(text.substring(literalStart));
+            variables.add(false);
+        }
+        boolean[] variablesArray = new boolean[variables.size()];
+        for (int j = 0; j < variablesArray.length; j++) {
+            variablesArray[j] = variables.get(j);
+        }
+        return new StringTemplate(parts.toArray(new String[parts.size()]), variablesArray);
+    }
+
+    /**
+     * Renders this template.
+     *
+     * @param context The EC holding the variables
+     * @return The rendered text, null if some variable could not be rendered natively
+     */
+    public String render(ExecutionContext context) {
+        if (parts.length == 1 && variables[0]) return valueToString(parts[0], context);
+        StringBuilder strb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (!variables[i]) {
+                strb.append(parts[i]);
+                continue;
+            }
+            String value = valueToString(parts[i], context);
+            if (value == null) return null;
+            strb.append(value);
+        }
+        return strb.toString();
+    }
+
+    private String valueToString(String name, ExecutionContext context) {
+        // Same symbols Utils.groovyEvaluate binds
+        CommandSymbol symbol = context.getSymbols().get(name);
+        if (!(symbol instanceof VarCommand)) return null;
+        Value value = ((VarCommand) symbol).getValue(context);
+        if (value == null) return null;
+        switch (value.getType()) {
+            case STRING:
+            case NUMBER:
+            case BOOLEAN:
+                return value.get().toString();
+            case NIL:
+                return "null";
+            default:
+                return null;
+        }
+    }
+}
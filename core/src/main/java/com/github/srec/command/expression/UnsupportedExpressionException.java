@@ -0,0 +1,33 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.expression;
+
+import com.github.srec.SRecException;
+
+/**
+ * Thrown when an expression cannot be evaluated natively and should be handed over to Groovy instead. This is part of
+ * the normal control flow, so no stack trace is filled in.
+ *
+ * @author Victor Tatai
+ */
+public class UnsupportedExpressionException extends SRecException {
+    public UnsupportedExpressionException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
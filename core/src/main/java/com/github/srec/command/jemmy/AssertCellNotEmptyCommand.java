@@ -7,6 +7,7 @@ import java.util.Map;
 import org.netbeans.jemmy.JemmyException;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
@@ -19,7 +20,7 @@ import com.github.srec.command.value.Value;
  *
  */
 @SRecCommand
-public class AssertCellNotEmptyCommand extends JemmyEventCommand {
+public class AssertCellNotEmptyCommand extends JemmyEventCommand implements ReadOnlyCommand {
 
 	/**
 	 * Initializes command attributes. <br/>
@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.method.MethodParameter;
 import com.github.srec.command.value.BooleanValue;
@@ -19,7 +20,7 @@ import static com.github.srec.jemmy.JemmyDSL.waitCheckedSelected;
  * @author Victor Tatai
  */
 @SRecCommand
-public class AssertCheckedCommand extends JemmyEventCommand {
+public class AssertCheckedCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public static final String INDEX = "index";
     public AssertCheckedCommand() {
         
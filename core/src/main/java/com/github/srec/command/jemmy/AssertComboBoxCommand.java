@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
@@ -13,8 +14,8 @@ import java.util.Map;
 /**
  * @author Victor Tatai
  */
-@SRecCommand
-public class AssertComboBoxCommand extends JemmyEventCommand {
+@SRecCommand("assert_combobox")
+public class AssertComboBoxCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertComboBoxCommand() {
         super("assert_combobox", param(LOCATOR, Type.STRING),
                                   param("text", Type.STRING, true, null),
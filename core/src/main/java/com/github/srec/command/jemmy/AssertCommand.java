@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.NumberValue;
 import com.github.srec.command.value.Type;
@@ -17,7 +18,7 @@ import static com.github.srec.jemmy.JemmyDSL.listBox;
  * @author Victor Tatai
  */
 @SRecCommand
-public class AssertCommand extends JemmyEventCommand {
+public class AssertCommand extends JemmyEventCommand implements ReadOnlyCommand {
 public static final String INDEX = "index";
     
     public AssertCommand() {
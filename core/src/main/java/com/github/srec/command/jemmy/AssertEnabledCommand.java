@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.method.MethodParameter;
 import com.github.srec.command.value.BooleanValue;
@@ -16,7 +17,7 @@ import static com.github.srec.jemmy.JemmyDSL.waitEnabled;
  * @author Victor Tatai
  */
 @SRecCommand
-public class AssertEnabledCommand extends JemmyEventCommand {
+public class AssertEnabledCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertEnabledCommand() {
         super("assert_enabled", new MethodParameter(LOCATOR, Type.STRING),
                 new MethodParameter("enabled", Type.BOOLEAN, true, BooleanValue.TRUE));
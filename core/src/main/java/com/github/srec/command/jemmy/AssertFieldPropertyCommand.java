@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
@@ -20,7 +21,7 @@ import java.util.Map;
  * or a string.
  */
 @SRecCommand
-public class AssertFieldPropertyCommand extends JemmyEventCommand {
+public class AssertFieldPropertyCommand extends JemmyEventCommand implements ReadOnlyCommand {
     
     public enum PropertyType{
         PROPERTY,
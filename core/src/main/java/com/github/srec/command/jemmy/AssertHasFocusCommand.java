@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
@@ -14,7 +15,7 @@ import static com.github.srec.jemmy.JemmyDSL.waitHasFocus;
  * @author Victor Tatai
  */
 @SRecCommand
-public class AssertHasFocusCommand extends JemmyEventCommand {
+public class AssertHasFocusCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertHasFocusCommand() {
         super("assert_has_focus", param(LOCATOR, Type.STRING));
     }
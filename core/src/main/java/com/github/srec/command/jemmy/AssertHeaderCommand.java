@@ -14,6 +14,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
@@ -27,7 +28,7 @@ import static com.github.srec.jemmy.JemmyDSL.table;
  * @author Victor Tatai
  */
 @SRecCommand
-public class AssertHeaderCommand extends JemmyEventCommand {
+public class AssertHeaderCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertHeaderCommand() {
         super("assert_header", params("table", Type.STRING, "text", Type.STRING, "column", Type.NUMBER));
     }
@@ -1,12 +1,14 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.exception.AssertionFailedException;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
 import com.github.srec.jemmy.JemmyDSL;
 import com.github.srec.jemmy.JemmyDSL.Window;
+import com.github.srec.jemmy.ModelSnapshot;
 
 import org.netbeans.jemmy.JemmyException;
 
@@ -17,7 +19,7 @@ import javax.swing.JComboBox;
 import javax.swing.ListModel;
 
 @SRecCommand
-public class AssertListContentCommand extends JemmyEventCommand {
+public class AssertListContentCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertListContentCommand() {
         super("assert_list_content", params(LOCATOR, Type.STRING, "content", Type.STRING));
     }
@@ -44,15 +46,13 @@ public class AssertListContentCommand extends JemmyEventCommand {
         }
 
         String[] expected = coerceToArray(params.get("content"), ctx);
-        int size = lstModel.getSize();
+        ModelSnapshot snapshot = ModelSnapshot.of(lstModel);
+        int size = snapshot.size();
         if (expected.length != size)
             throw new AssertionFailedException("Different size, expected " + expected.length + " but was " + size);
-        for (int i = 0; i < size; i++) {
-            Object o = lstModel.getElementAt(i);
-            String actual = (o instanceof String) ? (String) o : o.toString();
-            if (!expected[i].equals(actual))
-                throw new AssertionFailedException("Difference found at " + i + "th element , expected "
-                                                   + expected[i] + " but was " + lstModel.getElementAt(i));
-        }
+        int i = snapshot.firstDifference(expected);
+        if (i != -1)
+            throw new AssertionFailedException("Difference found at " + i + "th element , expected "
+                                               + expected[i] + " but was " + snapshot.get(i));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.value.Value;
 import org.netbeans.jemmy.JemmyException;
@@ -13,7 +14,7 @@ import static com.github.srec.jemmy.JemmyDSL.textField;
  * @author Victor Tatai
  */
 @SRecCommand
-public class AssertNotEmptyCommand extends JemmyEventCommand {
+public class AssertNotEmptyCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertNotEmptyCommand() {
         super("assert_not_empty", params(LOCATOR));
     }
@@ -1,11 +1,13 @@
 package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.exception.AssertionFailedException;
 import com.github.srec.command.value.Value;
 import com.github.srec.jemmy.JemmyDSL;
 import com.github.srec.jemmy.JemmyDSL.Window;
+import com.github.srec.jemmy.ModelSnapshot;
 
 import org.netbeans.jemmy.JemmyException;
 
@@ -16,12 +18,12 @@ import javax.swing.JComboBox;
 import javax.swing.ListModel;
 
 @SRecCommand
-public class AssertSortedCommand extends JemmyEventCommand {
+public class AssertSortedCommand extends JemmyEventCommand implements ReadOnlyCommand {
     public AssertSortedCommand() {
         super("assert_sorted", params(LOCATOR));
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @SuppressWarnings("rawtypes")
 	@Override
     protected void runJemmy(ExecutionContext ctx, Map<String, Value> params) throws JemmyException {
     	String locator = coerceToString(params.get(LOCATOR), ctx);
@@ -43,21 +45,12 @@ public class AssertSortedCommand extends JemmyEventCommand {
         			+ object.getClass().getName() +	", and not a JList or JComboBox");
         }
 
-        if (lstModel.getSize() > 1) {
-            Comparable<Object> tc = null;
-            Comparable<Object> tcProximo = null;
-
-            for (int i=0; i<lstModel.getSize()-1; i++) {
-                tc = (Comparable<Object>) lstModel.getElementAt(i);
-                tcProximo = (Comparable<Object>) lstModel.getElementAt(i + 1);
-                                
-                if (tcProximo.compareTo(tc) < 0) {
-                    i = lstModel.getSize();
-                    String message = "Order failed at element <" + tc
-                            + "> before element <" + tcProximo + ">";
-                    throw new AssertionFailedException(message);
-                }
-            }
+        ModelSnapshot snapshot = ModelSnapshot.of(lstModel);
+        int i = snapshot.firstUnsorted();
+        if (i != -1) {
+            String message = "Order failed at element <" + snapshot.get(i)
+                    + "> before element <" + snapshot.get(i + 1) + ">";
+            throw new AssertionFailedException(message);
         }
     }
 }
\ No newline at end of file
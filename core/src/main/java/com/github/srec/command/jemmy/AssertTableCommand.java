@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.jemmy;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.ReadOnlyCommand;
+import com.github.srec.command.SRecCommand;
+import com.github.srec.command.exception.CommandExecutionException;
+import com.github.srec.command.exception.IllegalParametersException;
+import com.github.srec.command.value.NumberValue;
+import com.github.srec.command.value.Type;
+import com.github.srec.command.value.Value;
+import com.github.srec.util.Csv;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.netbeans.jemmy.JemmyException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import static com.github.srec.jemmy.JemmyDSL.table;
+
+/**
+ * Asserts the texts of a region of a table. The expected texts are given either inline, with rows separated by ';' and
+ * cells by ',', or in a CSV file, relative to the script or in the classpath. All the differences are reported at once.
+ *
+ * @author Victor Tatai
+ */
+@SRecCommand
+public class AssertTableCommand extends JemmyEventCommand implements ReadOnlyCommand {
+    public static final String EXPECTED = "expected";
+    public static final String FILE = "file";
+
+    public AssertTableCommand() {
+        super("assert_table", param("table"),
+                param("row", Type.NUMBER, true, new NumberValue("0")),
+                param("column", Type.NUMBER, true, new NumberValue("0")),
+                param(EXPECTED, Type.STRING, true, null),
+                param(FILE, Type.STRING, true, null));
+    }
+
+    @Override
+    protected void runJemmy(ExecutionContext ctx, Map<String, Value> params) throws JemmyException {
+        String text = params.containsKey(EXPECTED) ? coerceToString(params.get(EXPECTED), ctx)
+                : read(ctx, coerceToString(params.get(FILE), ctx));
+        table(coerceToString(params.get("table"), ctx))
+                .assertContent(coerceToBigDecimal(params.get("row")).intValue(),
+                        coerceToBigDecimal(params.get("column")).intValue(),
+                        Csv.parse(text, params.containsKey(EXPECTED) ? ';' : '\n'));
+    }
+
+    private String read(ExecutionContext ctx, String fileName) {
+        try {
+            File file = new File(fileName);
+            if (!file.isAbsolute() && ctx.getFile() != null) file = new File(ctx.getFile().getParentFile(), fileName);
+            if (file.isFile()) return FileUtils.readFileToString(file, "UTF-8");
+            InputStream is = getClass().getClassLoader().getResourceAsStream(fileName);
+            if (is == null) throw new CommandExecutionException("Could not find the table file " + fileName);
+            try {
+                return IOUtils.toString(is, "UTF-8");
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            throw new CommandExecutionException(e);
+        }
+    }
+
+    @Override
+    protected void validateParameters(Map<String, Value> params) {
+        super.validateParameters(params);
+        if (params.containsKey(EXPECTED) == params.containsKey(FILE))
+            throw new IllegalParametersException("assert_table should receive exactly one parameter from (expected, file)");
+    }
+}
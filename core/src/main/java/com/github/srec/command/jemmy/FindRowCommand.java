@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.jemmy;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.SRecCommand;
+import com.github.srec.command.base.VarCommand;
+import com.github.srec.command.exception.IllegalParametersException;
+import com.github.srec.command.value.BooleanValue;
+import com.github.srec.command.value.NumberValue;
+import com.github.srec.command.value.Type;
+import com.github.srec.command.value.Value;
+import com.github.srec.util.Csv;
+import org.netbeans.jemmy.JemmyException;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.srec.jemmy.JemmyDSL.table;
+
+/**
+ * Finds the first table row with the given column values, searching the table model so that large tables can be
+ * searched without scrolling. The view index of the row, or -1 if there is none, is assigned to a variable.
+ *
+ * @author Victor Tatai
+ */
+@SRecCommand
+public class FindRowCommand extends JemmyEventCommand {
+    public static final String VALUES = "values";
+    public static final String INDEXED = "indexed";
+    public static final String RESULT_VAR_NAME_PARAM = "resultVarName";
+
+    public FindRowCommand() {
+        super("find_row", param("table"), param(VALUES), param(RESULT_VAR_NAME_PARAM),
+                param(INDEXED, Type.BOOLEAN, true, new BooleanValue(false)));
+    }
+
+    @Override
+    protected void runJemmy(ExecutionContext ctx, Map<String, Value> params) throws JemmyException {
+        int row = table(coerceToString(params.get("table"), ctx))
+                .findRow(parseValues(coerceToString(params.get(VALUES), ctx)), asBoolean(INDEXED, params));
+        ctx.addSymbol(new VarCommand(asString(RESULT_VAR_NAME_PARAM, params, ctx), location,
+                new NumberValue(new BigDecimal(row))));
+    }
+
+    /**
+     * Parses the column values, given as comma separated column=text pairs such as "Symbol=IBM, Side=Buy". Pairs may be
+     * quoted like CSV cells.
+     *
+     * @param text The text
+     * @return The texts keyed by column, in the given order
+     */
+    public static Map<String, String> parseValues(String text) {
+        Map<String, String> values = new LinkedHashMap<String, String>();
+        List<String[]> rows = Csv.parse(text, '\n');
+        if (rows.size() != 1) throw new IllegalParametersException("Invalid column values: " + text);
+        for (String pair : rows.get(0)) {
+            int separator = pair.indexOf('=');
+            if (separator == -1) throw new IllegalParametersException("Invalid column value: " + pair);
+            values.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+        }
+        return values;
+    }
+}
@@ -16,6 +16,7 @@ package com.github.srec.command.jemmy;
 import com.github.srec.command.ExecutionContext;
 import com.github.srec.command.SRecCommand;
 import com.github.srec.command.exception.CommandExecutionException;
+import com.github.srec.command.value.StringValue;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
 import org.netbeans.jemmy.JemmyException;
@@ -31,22 +32,37 @@ import static com.github.srec.jemmy.JemmyDSL.menuBar;
 public class PushMenuCommand extends JemmyEventCommand {
     public static final String INDEXES = "indexes";
     public static final String PATH = "path";
+    public static final String MODE = "mode";
+    /**
+     * Fires the menu item directly instead of opening each menu leading to it.
+     */
+    public static final String DIRECT_MODE = "direct";
 
     public PushMenuCommand() {
-        super("push_menu", param(INDEXES, Type.STRING, true, null), param(PATH, Type.STRING, true, null));
+        super("push_menu", param(INDEXES, Type.STRING, true, null), param(PATH, Type.STRING, true, null),
+                param(MODE, Type.STRING, true, new StringValue("visual")));
     }
 
     @Override
     protected void runJemmy(ExecutionContext ctx, Map<String, Value> params) throws JemmyException {
         long commandInterval = ctx != null ? ctx.getPlayer().getCommandInterval() : 50;
+        boolean direct = DIRECT_MODE.equals(asString(MODE, params, ctx));
         if (params.get(INDEXES) != null) {
             String indexesStr = coerceToString(params.get(INDEXES), ctx);
             String[] indexesArray = removeSpaces(indexesStr.split("[|,]+"));
-            menuBar().clickMenu(commandInterval, convertToInt(indexesArray));
+            if (direct) {
+                menuBar().pushMenu(convertToInt(indexesArray));
+            } else {
+                menuBar().clickMenu(commandInterval, convertToInt(indexesArray));
+            }
         } else if (params.get(PATH) != null) {
             String pathStr = coerceToString(params.get(PATH), ctx);
             String[] pathArray = removeSpaces(pathStr.split("[|>]+"));
-            menuBar().clickMenu(commandInterval, pathArray);
+            if (direct) {
+                menuBar().pushMenu(pathArray);
+            } else {
+                menuBar().clickMenu(commandInterval, pathArray);
+            }
         } else {
             throw new CommandExecutionException("Either indexes or path must be specified for push_menu");
         }
@@ -2,6 +2,7 @@ package com.github.srec.command.jemmy;
 
 import com.github.srec.command.ExecutionContext;
 import com.github.srec.command.SRecCommand;
+import com.github.srec.command.value.StringValue;
 import com.github.srec.command.value.Type;
 import com.github.srec.command.value.Value;
 import org.netbeans.jemmy.JemmyException;
@@ -15,12 +16,24 @@ import static com.github.srec.jemmy.JemmyDSL.textField;
  */
 @SRecCommand
 public class TypeCommand extends JemmyEventCommand {
+    public static final String MODE = "mode";
+    /**
+     * Inserts the whole text at once instead of typing each key.
+     */
+    public static final String BULK_MODE = "bulk";
+
     public TypeCommand() {
-        super("type", params(LOCATOR, Type.STRING, "text", Type.STRING));
+        super("type", param(LOCATOR), param("text", Type.STRING, false, null),
+                param(MODE, Type.STRING, true, new StringValue("keys")));
     }
 
     @Override
     protected void runJemmy(ExecutionContext ctx, Map<String, Value> params) throws JemmyException {
-        textField(coerceToString(params.get(LOCATOR), ctx)).type(coerceToString(params.get("text"), ctx));
+        String text = coerceToString(params.get("text"), ctx);
+        if (BULK_MODE.equals(asString(MODE, params, ctx))) {
+            textField(coerceToString(params.get(LOCATOR), ctx)).typeBulk(text);
+        } else {
+            textField(coerceToString(params.get(LOCATOR), ctx)).type(text);
+        }
     }
 }
\ No newline at end of file
@@ -17,6 +17,18 @@ import java.util.Map;
  */
 public class MethodCallCommand extends BaseCommand implements ValueCommand {
     protected Map<String, ValueCommand> parameters = new HashMap<String, ValueCommand>();
+    /**
+     * The method this call site was linked to, null if not linked.
+     */
+    private MethodCommand linkedMethod;
+    /**
+     * The method parameter slots at link time.
+     */
+    private MethodParameter[] linkedSlots;
+    /**
+     * The parameter value commands, indexed by the linked slots.
+     */
+    private ValueCommand[] slotCommands;
 
     public MethodCallCommand(String name, Location tree) {
         super(name, tree);
@@ -32,9 +44,47 @@ public class MethodCallCommand extends BaseCommand implements ValueCommand {
     public Value getValue(ExecutionContext context) {
         MethodCommand method = (MethodCommand) context.findSymbol(name);
         if (method == null) throw new CommandExecutionException("Method " + name + " not found.");
+        if (method == linkedMethod && method.getParameterSlots() == linkedSlots) {
+            Value[] values = new Value[slotCommands.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = slotCommands[i] == null ? SlotParameterMap.ABSENT : slotCommands[i].getValue(context);
+            }
+            return method.callLinkedMethod(context, linkedSlots, values);
+        }
+        // Not linked, or the symbol was rebound since
         return method.callMethod(context, convertParameters(context));
     }
 
+    /**
+     * Binds this call site to a method, validating the parameters once so that calls to that same method skip both
+     * the validation and the parameter map creation. If the name resolves to another method at run time the call
+     * falls back to the unlinked path.
+     *
+     * @param method The method
+     * @throws com.github.srec.command.exception.IllegalParametersException if the parameters are not valid for the
+     * method, in which case the call site is left unlinked
+     */
+    public void link(MethodCommand method) {
+        linkedMethod = null;
+        Map<String, Value> names = new HashMap<String, Value>();
+        for (String parameter : parameters.keySet()) {
+            names.put(parameter, null);
+        }
+        method.validateParameters(names);
+        MethodParameter[] slots = method.getParameterSlots();
+        ValueCommand[] commands = new ValueCommand[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            commands[i] = parameters.get(slots[i].getName());
+        }
+        slotCommands = commands;
+        linkedSlots = slots;
+        linkedMethod = method;
+    }
+
+    public boolean isLinked() {
+        return linkedMethod != null;
+    }
+
     private Map<String, Value> convertParameters(ExecutionContext context) {
         Map<String, Value> ret = new HashMap<String, Value>();
         for (Map.Entry<String, ValueCommand> entry : parameters.entrySet()) {
@@ -45,6 +95,7 @@ public class MethodCallCommand extends BaseCommand implements ValueCommand {
 
     public void addParameter(String name, ValueCommand v) {
         parameters.put(name, v);
+        linkedMethod = null;
     }
 
     public Map<String, ValueCommand> getParameters() {
@@ -31,6 +31,10 @@ import java.util.Map;
  */
 public abstract class MethodCommand extends BaseCommand implements CommandSymbol {
     protected Map<String, MethodParameter> parameters = new HashMap<String, MethodParameter>();
+    /**
+     * The parameters in slot order, built lazily and discarded whenever the parameters change.
+     */
+    private MethodParameter[] parameterSlots;
 
     protected MethodCommand(String name, MethodParameter... parameters) {
         super(name);
@@ -80,6 +84,26 @@ public abstract class MethodCommand extends BaseCommand implements CommandSymbol
         return internalCallMethod(context, params);
     }
 
+    /**
+     * Executes a call whose parameters were already validated when the call site was linked. The values must be
+     * indexed by the current {@link #getParameterSlots()}.
+     *
+     * @param context The execution context
+     * @param slots The parameter slots the call site was linked against
+     * @param values The parameter values, a {@link SlotParameterMap#ABSENT} entry meaning the parameter was not passed.
+     * Like in {@link #fillDefaultValues(Map)}, a null entry also gets the default value
+     * @return The return value from the method call
+     */
+    Value callLinkedMethod(ExecutionContext context, MethodParameter[] slots, Value[] values) {
+        for (int i = 0; i < slots.length; i++) {
+            if ((values[i] == SlotParameterMap.ABSENT || values[i] == null) && slots[i].isOptional()
+                    && slots[i].getDefaultValue() != null) {
+                values[i] = slots[i].getDefaultValue();
+            }
+        }
+        return internalCallMethod(context, new SlotParameterMap(slots, values));
+    }
+
     /**
      * Executes the method call after parameter validation.
      *
@@ -113,7 +137,7 @@ public abstract class MethodCommand extends BaseCommand implements CommandSymbol
     }
 
     /**
-     * Fills in the default values.
+     * Fills in the default values of the optional parameters which were not passed or were passed with a null value.
      *
      * @param params The parameters
      */
@@ -143,10 +167,27 @@ public abstract class MethodCommand extends BaseCommand implements CommandSymbol
 
     public void setParameters(Map<String, MethodParameter> parameters) {
         this.parameters = parameters;
+        parameterSlots = null;
     }
 
     public void addParameter(MethodParameter parameter) {
         this.parameters.put(parameter.getName(), parameter);
+        parameterSlots = null;
+    }
+
+    /**
+     * Gets the parameters in a fixed order, used by linked call sites to pass the parameter values in an array. The
+     * same array instance is returned until the parameters change.
+     *
+     * @return The parameter slots
+     */
+    public MethodParameter[] getParameterSlots() {
+        MethodParameter[] slots = parameterSlots;
+        if (slots == null) {
+            slots = parameters.values().toArray(new MethodParameter[parameters.size()]);
+            parameterSlots = slots;
+        }
+        return slots;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
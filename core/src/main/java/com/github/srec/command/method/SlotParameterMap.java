@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.method;
+
+import com.github.srec.command.exception.IllegalParametersException;
+import com.github.srec.command.value.ObjectValue;
+import com.github.srec.command.value.Value;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A parameter map backed by an array indexed by the method parameter slots, see
+ * {@link MethodCommand#getParameterSlots()}. A slot holding {@link #ABSENT} means the parameter was not passed, while
+ * a null slot is a parameter passed with a null value, like a null value in a hash map.
+ *
+ * @author Victor Tatai
+ */
+class SlotParameterMap extends AbstractMap<String, Value> {
+    /**
+     * Marks the slots of the parameters which were not passed, compared by identity.
+     */
+    static final Value ABSENT = new ObjectValue(null);
+
+    private final MethodParameter[] slots;
+    private final Value[] values;
+
+    SlotParameterMap(MethodParameter[] slots, Value[] values) {
+        this.slots = slots;
+        this.values = values;
+    }
+
+    private int indexOf(Object name) {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getName().equals(name)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public Value get(Object name) {
+        int index = indexOf(name);
+        return index == -1 || values[index] == ABSENT ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        int index = indexOf(name);
+        return index != -1 && values[index] != ABSENT;
+    }
+
+    @Override
+    public Value put(String name, Value value) {
+        int index = indexOf(name);
+        if (index == -1) throw new IllegalParametersException("Parameter not supported: " + name);
+        Value old = values[index];
+        values[index] = value;
+        return old == ABSENT ? null : old;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Value value : values) {
+            if (value != ABSENT) size++;
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Value>> entrySet() {
+        return new AbstractSet<Entry<String, Value>>() {
+            @Override
+            public Iterator<Entry<String, Value>> iterator() {
+                return new Iterator<Entry<String, Value>>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == ABSENT) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Value> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        Entry<String, Value> entry = new SimpleImmutableEntry<String, Value>(slots[next].getName(),
+                                values[next]);
+                        next = advance(next + 1);
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SlotParameterMap.this.size();
+            }
+        };
+    }
+}
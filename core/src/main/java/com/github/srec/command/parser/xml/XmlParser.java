@@ -18,6 +18,7 @@ import com.github.srec.command.base.SetCommand;
 import com.github.srec.command.base.ValueCommand;
 import com.github.srec.command.base.WhileCommand;
 import com.github.srec.command.exception.CommandExecutionException;
+import com.github.srec.command.exception.IllegalParametersException;
 import com.github.srec.command.method.MethodCallCommand;
 import com.github.srec.command.method.MethodCommand;
 import com.github.srec.command.method.MethodParameter;
@@ -30,6 +31,8 @@ import com.github.srec.command.value.DateValue;
 import com.github.srec.command.value.NilValue;
 import com.github.srec.command.value.NumberValue;
 import com.github.srec.command.value.Type;
+import com.github.srec.play.PlayerException;
+import com.github.srec.play.SyncMode;
 import com.github.srec.util.Resource;
 import com.github.srec.util.ResourceFactory;
 
@@ -142,6 +145,11 @@ public class XmlParser implements Parser {
         final String name = element.getName().getLocalPart();
         if ("suite".equals(name)) {
             currentTestSuite = new TestSuite(getAttributeByName("name", element));
+            try {
+                currentTestSuite.setSyncMode(SyncMode.parse(getAttributeByName("sync", element)));
+            } catch (PlayerException e) {
+                error(element, e.getMessage());
+            }
             getCurrentExecutionContext().setTestSuite(currentTestSuite);
         } else if ("test_case".equals(name)) {
             currentTestCase = new TestCase(getAttributeByName("name", element), new ExecutionContext(contextPrototype));
@@ -253,6 +261,7 @@ public class XmlParser implements Parser {
                 if (methodParameter == null) throw new ParseException("Parameter " + attributeName + " not defined");
                 command.addParameter(attributeName, createLiteralCommand(attr.getValue(), methodParameter.getType()));
             }
+            link(command, (MethodCommand) symbol);
             addCommand(command);
         }
     }
@@ -325,10 +334,26 @@ public class XmlParser implements Parser {
             for (Map.Entry<String, ValueCommand> entry : stub.getParameters().entrySet()) {
                 command.addParameter(entry.getKey(), entry.getValue());
             }
+            CommandSymbol symbol = getCurrentExecutionContext().findSymbol(stub.getMethod());
+            if (symbol instanceof MethodCommand) link(command, (MethodCommand) symbol);
             addCommand(command);
         }
     }
 
+    /**
+     * Links a call to its method. Invalid calls are left unlinked, so they fail when run just like before.
+     *
+     * @param command The call
+     * @param method The method
+     */
+    private void link(MethodCallCommand command, MethodCommand method) {
+        try {
+            command.link(method);
+        } catch (IllegalParametersException e) {
+            log.debug("Call to " + command.getName() + " not linked: " + e.getMessage());
+        }
+    }
+
     private Location createParseLocation(XMLEvent event) {
         javax.xml.stream.Location location = event.getLocation();
         return new Location(getParsingFileCanonicalPath(), location == null ? 0 : location.getLineNumber(),
@@ -7,16 +7,15 @@ import java.awt.FontMetrics;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.io.PrintStream;
-import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 
-import javax.swing.AbstractButton;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
@@ -28,10 +27,8 @@ import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
-import javax.swing.JPopupMenu;
 import javax.swing.JProgressBar;
 import javax.swing.JRadioButton;
-import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSlider;
 import javax.swing.JTabbedPane;
@@ -40,24 +37,24 @@ import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.JToggleButton;
 import javax.swing.JTree;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumnModel;
 import javax.swing.text.JTextComponent;
-import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 
 import org.apache.log4j.Logger;
+import org.netbeans.jemmy.CharBindingMap;
 import org.netbeans.jemmy.ComponentChooser;
 import org.netbeans.jemmy.ComponentSearcher;
-import org.netbeans.jemmy.JemmyException;
 import org.netbeans.jemmy.JemmyProperties;
+import org.netbeans.jemmy.QueueTool;
 import org.netbeans.jemmy.TestOut;
+import org.netbeans.jemmy.TimeoutExpiredException;
 import org.netbeans.jemmy.Timeouts;
-import org.netbeans.jemmy.Waitable;
-import org.netbeans.jemmy.Waiter;
 import org.netbeans.jemmy.operators.AbstractButtonOperator;
 import org.netbeans.jemmy.operators.ComponentOperator;
 import org.netbeans.jemmy.operators.ContainerOperator;
@@ -96,9 +93,8 @@ import antlr.debug.misc.JTreeASTPanel;
 import com.github.srec.UnsupportedFeatureException;
 import com.github.srec.command.exception.AssertionFailedException;
 import com.github.srec.command.jemmy.ClickCommand.Button;
-import com.github.srec.util.AWTTreeScanner;
-import com.github.srec.util.ScannerMatcher;
-import com.github.srec.util.Utils;
+import com.github.srec.util.ActiveWindowTracker;
+import com.github.srec.util.ComponentIndex;
 
 /**
  * A DSL wrapper for Jemmy operators.
@@ -146,6 +142,10 @@ public class JemmyDSL {
 
     private static Window currentWindow;
     private static Properties props = new Properties();
+    /**
+     * The upper limit of the timeouts in props, 0 for no limit.
+     */
+    private static long timeoutLimit;
 
     static {
         props.put("ComponentOperator.WaitComponentEnabledTimeout", "15000");
@@ -170,12 +170,34 @@ public class JemmyDSL {
         for (Map.Entry<Object, Object> entry : props.entrySet()) {
             timeouts.setTimeout((String) entry.getKey(), Long.parseLong((String) entry.getValue()));
         }
+        timeoutLimit = 0;
         currentWindow = null;
         JemmyDSL.ignored = Arrays.asList(ignored);
+        ActiveWindowTracker.getInstance();
         JemmyProperties.setCurrentOutput(new TestOut(System.in, (PrintStream) null, null));
         robotMode();
     }
 
+    /**
+     * Limits the Jemmy wait timeouts, so that a wait which would take longer fails earlier. Timeouts which are already
+     * lower than the limit are not changed. Only affects the operators created after the call.
+     *
+     * @param limit The limit in ms, 0 to go back to the default timeouts
+     */
+    public static void setTimeoutLimit(long limit) {
+        if (limit == timeoutLimit) return;
+        timeoutLimit = limit;
+        Timeouts timeouts = JemmyProperties.getCurrentTimeouts();
+        for (Map.Entry<Object, Object> entry : props.entrySet()) {
+            long timeout = Long.parseLong((String) entry.getValue());
+            timeouts.setTimeout((String) entry.getKey(), limit > 0 ? Math.min(timeout, limit) : timeout);
+        }
+    }
+
+    public static long getTimeoutLimit() {
+        return timeoutLimit;
+    }
+
     public static void robotMode() {
         JemmyProperties.setCurrentDispatchingModel(JemmyProperties.ROBOT_MODEL_MASK);
     }
@@ -188,6 +210,33 @@ public class JemmyDSL {
         return JemmyProperties.getCurrentDispatchingModel() == JemmyProperties.ROBOT_MODEL_MASK;
     }
 
+    /**
+     * Waits until the AWT event queue stays empty for the given quiet time. Since the queue is checked from inside the
+     * EDT this also means that the EDT is not busy, and a Swing timer which fires during the quiet time resets the
+     * wait. Gives up after the given timeout.
+     *
+     * @param quietTime The time in ms the queue must stay empty
+     * @param timeout The maximum time in ms to wait
+     * @return true if the queue became idle, false if the timeout expired
+     */
+    public static boolean waitIdle(long quietTime, long timeout) {
+        if (QueueTool.isDispatchThread()) {
+            // Waiting on the EDT for the EDT to become idle would never finish
+            return true;
+        }
+        Timeouts timeouts = JemmyProperties.getCurrentTimeouts().cloneThis();
+        timeouts.setTimeout("QueueTool.WaitQueueEmptyTimeout", timeout);
+        QueueTool queueTool = new QueueTool();
+        queueTool.setTimeouts(timeouts);
+        try {
+            queueTool.waitEmpty(quietTime);
+            return true;
+        } catch (TimeoutExpiredException e) {
+            logger.debug("Event queue did not become idle after " + timeout + "ms");
+            return false;
+        }
+    }
+
     public static ComponentMap getComponentMap() {
         return componentMap;
     }
@@ -221,21 +270,13 @@ public class JemmyDSL {
     }
 
     private static Window findActiveWindow() {
-        java.awt.Window[] windows = JFrame.getWindows();
-        for (java.awt.Window w : windows) {
-            if (ignored.contains(w)) {
-				continue;
-			}
-            if (!w.isActive()) {
-				continue;
-			}
-            if (w instanceof JFrame) {
-                return new Frame((JFrame) w);
-            } else if (w instanceof JDialog) {
-                return new Dialog((JDialog) w);
-            } else {
-                logger.info("Found a window which is neither a JFrame nor JDialog");
-            }
+        java.awt.Window w = ActiveWindowTracker.getInstance().getActiveWindow(ignored);
+        if (w instanceof JFrame) {
+            return new Frame((JFrame) w);
+        } else if (w instanceof JDialog) {
+            return new Dialog((JDialog) w);
+        } else if (w != null) {
+            logger.info("Found a window which is neither a JFrame nor JDialog");
         }
         return null;
     }
@@ -329,36 +370,14 @@ public class JemmyDSL {
 
     public static java.awt.Component findComponent(String locator, java.awt.Component component) {
         assert locator != null;
-        String[] strs = parseLocator(locator);
-        if (strs.length != 2) {
-			throw new JemmyDSLException("Invalid locator " + locator);
-		}
-        if (strs[0].equals("id")) {
-            return componentMap.getComponent(strs[1]).getSource();
-        } else {
-            return AWTTreeScanner.scan(component, compileMatcher(strs));
+        Locator compiled = Locator.compile(locator);
+        if (compiled.getType().equals("id")) {
+            return componentMap.getComponent(compiled.getValue()).getSource();
         }
-    }
-
-    private static String[] parseLocator(String locator) {
-        int i = locator.indexOf("=");
-        if (i == -1) {
-            return new String[]{"name", locator.substring(i + 1).trim()};
+        if (compiled.getMatcher() == null) {
+            throw new JemmyDSLException("Invalid locator " + compiled.getType() + "=" + compiled.getValue());
         }
-        return new String[]{locator.substring(0, i).trim(), locator.substring(i + 1).trim()};
-    }
-
-    private static ScannerMatcher compileMatcher(String[] strs) {
-        if (strs[0].equals("name")) {
-			return new AWTTreeScanner.NameScannerMatcher(strs[1]);
-		}
-        if (strs[0].equals("title")) {
-			return new AWTTreeScanner.TitleScannerMatcher(strs[1]);
-		}
-        if (strs[0].equals("text")) {
-			return new AWTTreeScanner.TextScannerMatcher(strs[1]);
-		}
-        throw new JemmyDSLException("Invalid locator " + strs[0] + "=" + strs[1]);
+        return ComponentIndex.find(component, compiled.getMatcher());
     }
 
     /**
@@ -373,142 +392,15 @@ public class JemmyDSL {
      */
     private static List<java.awt.Component> findComponents(java.awt.Container container,
                                                            Class<? extends java.awt.Component> componentClass) {
-        List<java.awt.Component> list = new ArrayList<java.awt.Component>();
-        for (java.awt.Component component : container.getComponents()) {
-            if (component.isVisible() && componentClass.isAssignableFrom(component.getClass())) {
-                list.add(component);
-            }
-            if (component instanceof java.awt.Container) {
-                List<java.awt.Component> children = findComponents((java.awt.Container) component,
-                                                                   componentClass);
-                list.addAll(children);
-            }
-        }
-        return list;
+        return ComponentIndex.findVisible(container, componentClass);
     }
 
     private static JComponentOperator convertFind(java.awt.Component comp) {
-        if (comp instanceof JComboBox) {
-			return new JComboBoxOperator((JComboBox) comp);
-		}
-        if (comp instanceof JLabel) {
-			return new JLabelOperator((JLabel) comp);
-		}
-        if (comp instanceof JProgressBar) {
-			return new JProgressBarOperator((JProgressBar) comp);
-		}
-        if (comp instanceof JTabbedPane) {
-			return new JTabbedPaneOperator((JTabbedPane) comp);
-		}
-        if (comp instanceof JTableHeader) {
-			return new JTableHeaderOperator((JTableHeader) comp);
-		}
-        if (comp instanceof JTextArea) {
-			return new JTextAreaOperator((JTextArea) comp);
-		}
-        if (comp instanceof JTree) {
-            return new JTreeOperator((JTree) comp);
-        }
-        if (comp instanceof JTextComponent) {
-			return new JTextFieldOperator((JTextField) comp);
-		}
-        if (comp instanceof JScrollPane) {
-			return new JScrollPaneOperator((JScrollPane) comp);
-		}
-        if (comp instanceof JCheckBox) {
-			return new JCheckBoxOperator((JCheckBox) comp);
-		}
-        if (comp instanceof JRadioButton) {
-			return new JRadioButtonOperator((JRadioButton) comp);
-		}
-        if (comp instanceof JButton) {
-			return new JButtonOperator((JButton) comp);
-		}
-        if (comp instanceof AbstractButton) {
-			return new AbstractButtonOperator((AbstractButton) comp);
-		}
-        if (comp instanceof JTable) {
-            return new TableOperator((JTable) comp);
-        }
-        if (comp instanceof JMenuBar) {
-			return new JMenuBarOperator((JMenuBar) comp);
-		}
-        if (comp instanceof JScrollBar) {
-			return new JScrollBarOperator((JScrollBar) comp);
-		}
-        if (comp instanceof JInternalFrame) {
-			return new JInternalFrameOperator((JInternalFrame) comp);
-		}
-        if (comp instanceof javax.swing.JList) {
-            return new JListOperator((javax.swing.JList) comp);
-        }
-        if (comp instanceof JPopupMenu) {
-            return new JPopupMenuOperator((JPopupMenu) comp);
-        }
-        throw new JemmyDSLException("Unsupported find type " + comp);
+        return OperatorFactory.createOperator(comp);
     }
 
     private static Component convertFind(JComponentOperator comp) {
-        if (comp instanceof JComboBoxOperator) {
-			return new ComboBox((JComboBoxOperator) comp);
-		}
-        if (comp instanceof JLabelOperator) {
-			return new Label((JLabelOperator) comp);
-		}
-        if (comp instanceof JProgressBarOperator) {
-			return new ProgressBar((JProgressBarOperator) comp);
-		}
-        if (comp instanceof JTabbedPaneOperator) {
-			return new TabbedPane((JTabbedPaneOperator) comp);
-		}
-        if (comp instanceof JTableHeaderOperator) {
-			return new TableHeader((JTableHeaderOperator) comp);
-		}
-        if (comp instanceof JTextAreaOperator) {
-			return new TextArea((JTextAreaOperator) comp);
-		}
-        if (comp instanceof JTreeOperator) {
-            return new Tree((JTreeOperator) comp);
-        }
-        if (comp instanceof JTextComponentOperator) {
-			return new TextField((JTextFieldOperator) comp);
-		}
-        if (comp instanceof JScrollPaneOperator) {
-			return new ScrollPane((JScrollPaneOperator) comp);
-		}
-        if (comp instanceof JCheckBoxOperator) {
-			return new CheckBox((JCheckBoxOperator) comp);
-		}
-        if (comp instanceof JRadioButtonOperator) {
-			return new RadioButton((JRadioButtonOperator) comp);
-		}
-        if (comp instanceof JButtonOperator) {
-			return new Button((JButtonOperator) comp);
-		}
-        if (comp instanceof AbstractButtonOperator) {
-			return new GenericButton((AbstractButtonOperator) comp);
-		}
-        if (comp instanceof JTableOperator) {
-			return new Table((JTableOperator) comp);
-		}
-        if (comp instanceof JMenuBarOperator) {
-			return new MenuBar((JMenuBarOperator) comp);
-		}
-        if (comp instanceof JScrollBarOperator) {
-			return new ScrollBar((JScrollBarOperator) comp);
-		}
-        // not really sure this is the right thing to do, but constructor here expects a component
-        // and not an operator:
-        if (comp instanceof JInternalFrameOperator) {
-			return new InternalFrame((JInternalFrame) ((JInternalFrameOperator) comp).getSource());
-		}
-        if (comp instanceof JListOperator) {
-            return new JList((JListOperator) comp);
-        }
-        if (comp instanceof JPopupMenuOperator) {
-            return new PopupMenu((JPopupMenuOperator) comp);
-        }        
-        throw new JemmyDSLException("Unsupported find type " + comp);
+        return OperatorFactory.wrap(comp);
     }
 
     /**
@@ -659,43 +551,44 @@ public class JemmyDSL {
 
     @SuppressWarnings({"unchecked"})
     public static <X extends ContainerOperator> X find(String locator, Class<X> clazz) {
-        Map<String, String> locatorMap = Utils.parseLocator(locator);
+        Locator compiled = Locator.compile(locator);
         X component;
-        if (locatorMap.containsKey("name")) {
+        Locator.Strategy strategy = compiled.getStrategy();
+        if (strategy == Locator.Strategy.NAME) {
             component = newInstance(clazz,
                                     currentWindow().getComponent(),
                                     new NameComponentChooser(locator));
-        } else if (locatorMap.containsKey("label")) {
+        } else if (strategy == Locator.Strategy.LABEL) {
             JLabelOperator jlabel = new JLabelOperator(currentWindow().getComponent(),
-                    locatorMap.get("label"));
+                    compiled.get("label"));
             if (!(jlabel.getLabelFor() instanceof JTextField)) {
                 throw new JemmyDSLException("Associated component for " + locator
                         + " is not a JTextComponent");
             }
             component = newInstance(clazz, JTextField.class, (JTextField) jlabel.getLabelFor());
-        } else if (locatorMap.containsKey("text")) {
+        } else if (strategy == Locator.Strategy.TEXT) {
             if (JTextComponentOperator.class.isAssignableFrom(clazz)) {
                 component = newInstance(clazz,
                                         currentWindow().getComponent(),
                                         new JTextComponentOperator.JTextComponentByTextFinder(
-                                                locatorMap.get("text")));
+                                                compiled.get("text")));
             } else if (AbstractButtonOperator.class.isAssignableFrom(clazz)) {
                 component = newInstance(clazz,
                                         currentWindow().getComponent(),
                                         new AbstractButtonOperator.AbstractButtonByLabelFinder(
-                                                locatorMap.get("text")));
+                                                compiled.get("text")));
             } else if (JComponentOperator.class.isAssignableFrom(clazz)) {
                 // Hack, we assume that what was really meant was AbstractButtonOperator
                 component = newInstance(clazz,
                                         currentWindow().getComponent(),
                                         new AbstractButtonOperator.AbstractButtonByLabelFinder(
-                                                locatorMap.get("text")));
+                                                compiled.get("text")));
             } else {
                 throw new JemmyDSLException(
                         "Unsupported component type for location by text locator: " + locator);
             }
-        } else if (locatorMap.containsKey("id")) {
-            ComponentOperator operator = componentMap.getComponent(locatorMap.get("id"));
+        } else if (strategy == Locator.Strategy.ID) {
+            ComponentOperator operator = componentMap.getComponent(compiled.get("id"));
             if (operator == null) {
 				return null;
 			}
@@ -704,12 +597,12 @@ public class JemmyDSL {
                         + operator.getClass().getName() + " to " + clazz.getName());
             }
             component = (X) operator;
-        } else if (locatorMap.containsKey("title")) {
+        } else if (strategy == Locator.Strategy.TITLE) {
             if (JInternalFrameOperator.class.isAssignableFrom(clazz)) {
                 component = newInstance(clazz,
                                         currentWindow().getComponent(),
                                         new JInternalFrameOperator.JInternalFrameByTitleFinder(
-                                                locatorMap.get("title")));
+                                                compiled.get("title")));
             } else {
                 throw new JemmyDSLException(
                         "Unsupported component type for location by text locator: " + locator);
@@ -726,44 +619,13 @@ public class JemmyDSL {
     private static <X extends ContainerOperator> X newInstance(Class<X> clazz,
                                                                 ContainerOperator parent,
                                                                 ComponentChooser chooser) {
-        try {
-            Constructor<X> c = clazz.getConstructor(ContainerOperator.class, ComponentChooser.class);
-            return c.newInstance(parent, chooser);
-        } catch (Exception e) {
-            // Check to see if the nested exception was caused by a regular Jemmy exception
-            if (e.getCause() != null && e.getCause() instanceof JemmyException) {
-				throw (JemmyException) e.getCause();
-			}
-            throw new JemmyDSLException(e);
-        }
+        return OperatorFactory.create(clazz, parent, chooser);
     }
 
     private static <X extends ContainerOperator, Y> X newInstance(Class<X> clazz,
                                                                    Class<Y> componentClass,
                                                                    JComponent component) {
-        try {
-            Constructor<X> c = findConstructor(clazz, componentClass);
-            return c.newInstance(component);
-        } catch (Exception e) {
-            // Check to see if the nested exception was caused by a regular Jemmy exception
-            if (e.getCause() != null && e.getCause() instanceof JemmyException) {
-				throw (JemmyException) e.getCause();
-			}
-            throw new JemmyDSLException(e);
-        }
-    }
-
-    @SuppressWarnings({"unchecked"})
-    private static <X, Y> Constructor<X> findConstructor(Class<X> clazz, Class<Y> componentClass) {
-        Constructor<X>[] cs = (Constructor<X>[]) clazz.getConstructors();
-        for (Constructor<X> c : cs) {
-            final Class<?>[] types = c.getParameterTypes();
-            if (types.length == 1 && types[0].isAssignableFrom(componentClass)) {
-				return c;
-			}
-        }
-        throw new JemmyDSLException("Could not find suitable constructor in class "
-                + clazz.getCanonicalName());
+        return OperatorFactory.create(clazz, componentClass, component);
     }
 
     public static JComponent getSwingComponentById(String id) {
@@ -842,72 +704,143 @@ public class JemmyDSL {
 
     private static void waitComponentDisabled(final ComponentOperator op)
         throws InterruptedException {
-        Waiter waiter = new Waiter(new Waitable() {
+        StateWaiter.waitState(op, new ComponentChooser() {
             @Override
-			public Object actionProduced(Object obj) {
-                if (((java.awt.Component) obj).isEnabled()) {
-                    return null;
-                } else {
-                    return obj;
-                }
+            public boolean checkComponent(java.awt.Component comp) {
+                return !comp.isEnabled();
             }
 
             @Override
-			public String getDescription() {
-                return ("Component description: " + op.getSource().getClass().toString());
+            public String getDescription() {
+                return "disabled";
             }
-        });
-        waiter.setOutput(op.getOutput());
-        waiter.setTimeoutsToCloneOf(op.getTimeouts(),
-                                    "ComponentOperator.WaitComponentEnabledTimeout");
-        waiter.waitAction(op.getSource());
+        }, "ComponentOperator.WaitComponentEnabledTimeout");
     }
 
     private static void waitComponentChecked(final JToggleButtonOperator op, final boolean checked)
         throws InterruptedException {
-        Waiter waiter = new Waiter(new Waitable() {
+        StateWaiter.waitState(op, new ComponentChooser() {
             @Override
-			public Object actionProduced(Object obj) {
-                if (((JToggleButton) obj).isSelected() != checked) {
-                    return null;
-                } else {
-                    return obj;
-                }
+            public boolean checkComponent(java.awt.Component comp) {
+                return ((JToggleButton) comp).isSelected() == checked;
             }
 
             @Override
-			public String getDescription() {
-                return ("Component description: " + op.getSource().getClass().toString());
+            public String getDescription() {
+                return checked ? "checked" : "unchecked";
             }
-        });
-        waiter.setOutput(op.getOutput());
-        waiter.setTimeoutsToCloneOf(op.getTimeouts(),
-                                    "ComponentOperator.WaitComponentEnabledTimeout");
-        waiter.waitAction(op.getSource());
+        }, "ComponentOperator.WaitComponentEnabledTimeout");
     }
-    
+
     private static void waitComponentCheckedSelected(final JListOperator op, final boolean checked, final int index)
             throws InterruptedException {
-            Waiter waiter = new Waiter(new Waitable() {
-                @Override
-                public Object actionProduced(Object obj) {
-                    if (( (javax.swing.JList) obj).isSelectedIndex(index) != checked) {
-                        return null;
-                    } else {
-                        return obj;
-                    }
-                }
+        StateWaiter.waitState(op, new ComponentChooser() {
+            @Override
+            public boolean checkComponent(java.awt.Component comp) {
+                return ((javax.swing.JList) comp).isSelectedIndex(index) == checked;
+            }
 
-                @Override
-                public String getDescription() {
-                    return ("Component description: " + op.getSource().getClass().toString());
+            @Override
+            public String getDescription() {
+                return "item " + index + (checked ? " selected" : " not selected");
+            }
+        }, "ComponentOperator.WaitComponentEnabledTimeout");
+    }
+
+    /**
+     * Waits for a component state, wrapping interruptions in a {@link JemmyDSLException}.
+     */
+    private static void waitState(ComponentOperator op, ComponentChooser chooser) {
+        try {
+            StateWaiter.waitState(op, chooser, "ComponentOperator.WaitStateTimeout");
+        } catch (InterruptedException e) {
+            throw new JemmyDSLException(e);
+        }
+    }
+
+    /**
+     * Runs a task in the EDT, waiting for it to finish. If called in the EDT the task is run directly.
+     *
+     * @param task The task
+     */
+    static void runOnEventThread(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(task);
+        } catch (InterruptedException e) {
+            throw new JemmyDSLException(e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new JemmyDSLException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs an action in the EDT with every Jemmy wait limited to the given time. Unlike
+     * {@link #setTimeoutLimit(long)} this covers all the timeouts, including the Jemmy defaults srec does not set, and
+     * the current window operator, whose timeouts are swapped for the duration of the action. The call waits for the
+     * action to finish even if the calling thread is interrupted, in which case the interrupt status is restored
+     * afterwards.
+     *
+     * @param limit The limit in ms
+     * @param action The action
+     */
+    public static void invokeWithTimeoutLimit(long limit, final Runnable action) {
+        Timeouts previous = JemmyProperties.getCurrentTimeouts();
+        Timeouts limited = new LimitedTimeouts(previous, limit);
+        Window window = currentWindow;
+        Timeouts windowTimeouts = window == null ? null : window.getComponent().getTimeouts();
+        JemmyProperties.setCurrentTimeouts(limited);
+        if (window != null) window.getComponent().setTimeouts(limited);
+        try {
+            runToCompletion(action);
+        } finally {
+            JemmyProperties.setCurrentTimeouts(previous);
+            if (window != null) window.getComponent().setTimeouts(windowTimeouts);
+            // A window found during the action got the limited timeouts
+            Window found = currentWindow;
+            if (found != null && found != window && found.getComponent().getTimeouts() == limited) {
+                found.getComponent().setTimeouts(previous);
+            }
+        }
+    }
+
+    private static void runToCompletion(final Runnable action) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            action.run();
+            return;
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        final Throwable[] failure = new Throwable[1];
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    action.run();
+                } catch (Throwable t) {
+                    failure[0] = t;
+                } finally {
+                    done.countDown();
                 }
-            });
-            waiter.setOutput(op.getOutput());
-            waiter.setTimeoutsToCloneOf(op.getTimeouts(),
-                                        "ComponentOperator.WaitComponentEnabledTimeout");
-            waiter.waitAction(op.getSource());
+            }
+        });
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
         }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure[0] instanceof RuntimeException) throw (RuntimeException) failure[0];
+        if (failure[0] instanceof Error) throw (Error) failure[0];
+        if (failure[0] != null) throw new JemmyDSLException(failure[0]);
+    }
 
     private static int convertKey(String keyString) {
         if ("Tab".equalsIgnoreCase(keyString)) {
@@ -1145,30 +1078,51 @@ public class JemmyDSL {
             if (text.contains("\t") || text.contains("\r") || text.contains("\n")) {
                 throw new IllegalParametersException("Text cannot contain \\t \\r \\n");
             }
-            dispatchingMode();
+            component.setVerification(false);
+            QueueTyper.type(component, text);
+            return this;
+        }
+
+        /**
+         * Inserts the text in the component at once, in a single EDT operation, instead of typing it key by key. The
+         * text goes through the same path as typed keys (replacing the selection), so document filters and listeners
+         * are still called, and the component, which gets the focus first, is dispatched a key released event for
+         * the last character.
+         *
+         * @param text The text, may contain new lines in case the component accepts them
+         * @return This
+         */
+        public TextField typeBulk(final String text) {
+            component.requestFocus();
+            // Key events are dispatched to the focus owner
+            component.waitHasFocus();
+            final JTextComponent textComponent = (JTextComponent) component.getSource();
             try {
-                // TODO: find a better way to guarantee focus on the target typing component
-                // The solution proposed here tries to guarantee that the textField has the focus
-                // to make the test as closes as the human interactions as possible.
-                component.requestFocus();
-                component.setVerification(false);
-                component.typeText(text);
-                return this;
-            } finally {
-                robotMode();
+                SwingUtilities.invokeAndWait(new Runnable() {
+                    @Override
+                    public void run() {
+                        textComponent.replaceSelection(text);
+                        if (text.length() == 0) return;
+                        char last = text.charAt(text.length() - 1);
+                        CharBindingMap map = JemmyProperties.getCurrentCharBindingMap();
+                        textComponent.dispatchEvent(new KeyEvent(textComponent, KeyEvent.KEY_RELEASED,
+                                System.currentTimeMillis(), map.getCharModifiers(last), map.getCharKey(last), last));
+                    }
+                });
+            } catch (InterruptedException e) {
+                throw new JemmyDSLException(e);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new JemmyDSLException(e.getCause());
             }
+            return this;
         }
 
         public TextField type(char key) {
             component.typeKey(key);
             if (!isRobotMode()) {
-                // This is a hack because type key in queue mode does not wait for events to be
-                // fired
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    throw new JemmyDSLException(e);
-                }
+                // Queue mode does not wait for the events to be processed
+                QueueTyper.waitQueue();
             }
             return this;
         }
@@ -1275,11 +1229,11 @@ public class JemmyDSL {
         }
 
         public void select(String text) {
-            Map<String, String> selectedItem = Utils.parseLocator(text);
-            if (selectedItem.containsKey("name")) {
+            Locator selectedItem = Locator.compile(text);
+            if (selectedItem.contains("name")) {
                 clickDropDown();
                 component.selectItem(selectedItem.get("name"));
-            } else if (selectedItem.containsKey("index")) {
+            } else if (selectedItem.contains("index")) {
                 select(Integer.parseInt(selectedItem.get("index")));
             } else {
                 throw new IllegalParametersException("Illegal parameters " + text
@@ -1353,12 +1307,9 @@ public class JemmyDSL {
     
     public static class Tree extends Component {
         private final JTreeOperator operator;
-        private JTree component;
 
         public Tree(String locator) {
             operator = find(locator, JTreeOperator.class);
-            component = (JTree) findComponent(locator, currentWindow()
-                    .getComponent().getSource());
         }
 
         public Tree(JTreeOperator component) {
@@ -1371,7 +1322,7 @@ public class JemmyDSL {
         }
 
         public void click(int count, String node, com.github.srec.command.jemmy.ClickCommand.Button button) {
-            TreePath path = findNode(component, node);
+            TreePath path = waitNode(node);
 
             if (path != null) {
                 operator.clickOnPath(path, count, button.getMask());
@@ -1381,34 +1332,52 @@ public class JemmyDSL {
             }
         }
 
-        public TreePath findNode(JTree tree, String nodeLabel) {
-            TreeNode root = (TreeNode) tree.getModel().getRoot();
-            return findNode(tree, new TreePath(root), nodeLabel);
+        /**
+         * Finds a node, given either by a path of labels such as "Root>Accounts>EMEA" or by a single label. Only the
+         * nodes along a path are expanded, and the nodes found are remembered until the tree model changes them.
+         *
+         * @param tree The tree
+         * @param nodeLabel The node path or label
+         * @return The node path, null if it was not found
+         */
+        public TreePath findNode(final JTree tree, final String nodeLabel) {
+            final TreePath[] path = new TreePath[1];
+            runOnEventThread(new Runnable() {
+                @Override
+                public void run() {
+                    path[0] = TreePathIndex.find(tree, nodeLabel);
+                }
+            });
+            return path[0];
         }
 
-        @SuppressWarnings("rawtypes")
-		private static TreePath findNode(JTree tree, TreePath parent,
-                String nodeLabel) {
-            TreeNode node = (TreeNode)parent.getLastPathComponent();
-            Object o = node.toString();
+        /**
+         * Finds a node like {@link #findNode(JTree, String)}, waiting for lazily loaded nodes.
+         *
+         * @param node The node path or label
+         * @return The node path, null if it was not found before the timeout
+         */
+        private TreePath waitNode(final String node) {
+            final TreePath[] path = new TreePath[1];
+            try {
+                StateWaiter.waitState(operator, new ComponentChooser() {
+                    @Override
+                    public boolean checkComponent(java.awt.Component comp) {
+                        path[0] = findNode((JTree) comp, node);
+                        return path[0] != null;
+                    }
 
-            if (nodeLabel.equals(o)) {
-                return parent;
-            } else {
-                if (node.getChildCount() >= 0) {
-                    for (Enumeration e = node.children(); e.hasMoreElements();) {
-                        TreeNode n = (TreeNode)e.nextElement();
-                        TreePath path = parent.pathByAddingChild(n);
-                        TreePath result = findNode(tree, path, nodeLabel);
-
-                        if (result != null) {
-                            return result;
-                        }
+                    @Override
+                    public String getDescription() {
+                        return "node " + node;
                     }
-                }
+                }, "JTreeOperator.WaitNextNodeTimeout");
+            } catch (TimeoutExpiredException e) {
+                return null;
+            } catch (InterruptedException e) {
+                throw new JemmyDSLException(e);
             }
-
-            return null;
+            return path[0];
         }
     }
 
@@ -1466,12 +1435,139 @@ public class JemmyDSL {
             return this;
         }
 
+        /**
+         * Asserts the texts of a region of the table, waiting for them like {@link Row#assertColumn(int, String)}. The
+         * whole region is read at once each time it is checked, and all differences are reported.
+         *
+         * @param firstRow The first row of the region
+         * @param firstColumn The first column of the region
+         * @param expected The expected texts, row by row, rows may have different lengths
+         * @return This
+         */
+        public Table assertContent(int firstRow, int firstColumn, List<String[]> expected) {
+            TableContentChooser chooser = new TableContentChooser(firstRow, firstColumn, expected,
+                    component.getComparator());
+            try {
+                StateWaiter.waitState(component, chooser, "ComponentOperator.WaitStateTimeout");
+            } catch (TimeoutExpiredException e) {
+                throw new AssertionFailedException(chooser.getDescription());
+            } catch (InterruptedException e) {
+                throw new JemmyDSLException(e);
+            }
+            return this;
+        }
+
+        /**
+         * Finds the first row, in model order, with the given column values. The model is searched directly, so
+         * rows do not need to be scrolled to, and values are compared by their exact text.
+         *
+         * @param values The expected texts keyed by column, either the model column index or the column name
+         * @param indexed true to index the values of the first column, which speeds up repeated searches in large
+         * tables
+         * @return The view index of the row, -1 if there is none
+         * @throws TimeoutExpiredException in case the search takes longer than the ComponentOperator.WaitStateTimeout
+         * timeout
+         */
+        public int findRow(Map<String, String> values, boolean indexed) {
+            return TableRowFinder.findRow((JTable) component.getSource(), values, indexed, System.currentTimeMillis()
+                    + component.getTimeouts().getTimeout("ComponentOperator.WaitStateTimeout"));
+        }
+
+        /**
+         * Asserts that the table has a row with the given column values, waiting for it like
+         * {@link Row#assertColumn(int, String)}.
+         *
+         * @param values The expected texts keyed by column, see {@link #findRow(Map, boolean)}
+         * @param indexed true to index the values of the first column
+         * @return The row found
+         */
+        public Row assertRow(final Map<String, String> values, final boolean indexed) {
+            final int[] found = new int[1];
+            // Each search must also end by the wait deadline, which is only checked between searches
+            final long deadline = System.currentTimeMillis()
+                    + component.getTimeouts().getTimeout("ComponentOperator.WaitStateTimeout");
+            try {
+                StateWaiter.waitState(component, new ComponentChooser() {
+                    @Override
+                    public boolean checkComponent(java.awt.Component comp) {
+                        found[0] = TableRowFinder.findRow((JTable) comp, values, indexed, deadline);
+                        return found[0] != -1;
+                    }
+
+                    @Override
+                    public String getDescription() {
+                        return "row with " + values;
+                    }
+                }, "ComponentOperator.WaitStateTimeout");
+            } catch (TimeoutExpiredException e) {
+                throw new AssertionFailedException("Table has no row with " + values);
+            } catch (InterruptedException e) {
+                throw new JemmyDSLException(e);
+            }
+            return row(found[0]);
+        }
+
         @Override
         public JTableOperator getComponent() {
             return component;
         }
     }
 
+    /**
+     * Checks a region of a table against the expected texts, keeping the differences found by the last check.
+     */
+    private static class TableContentChooser implements ComponentChooser {
+        private final int firstRow;
+        private final int firstColumn;
+        private final List<String[]> expected;
+        private final StringComparator comparator;
+        private final int columns;
+        private final List<String> differences = new ArrayList<String>();
+
+        private TableContentChooser(int firstRow, int firstColumn, List<String[]> expected,
+                                    StringComparator comparator) {
+            this.firstRow = firstRow;
+            this.firstColumn = firstColumn;
+            this.expected = expected;
+            this.comparator = comparator;
+            int max = 0;
+            for (String[] row : expected) {
+                max = Math.max(max, row.length);
+            }
+            columns = max;
+        }
+
+        @Override
+        public boolean checkComponent(java.awt.Component comp) {
+            String[][] actual = TableOperator.getCellTexts((JTable) comp, firstRow, firstColumn, expected.size(),
+                    columns);
+            differences.clear();
+            for (int r = 0; r < expected.size(); r++) {
+                String[] row = expected.get(r);
+                for (int c = 0; c < row.length; c++) {
+                    String text = actual[r][c];
+                    if (text == null) {
+                        differences.add("(" + (firstRow + r) + ", " + (firstColumn + c) + "): expected '" + row[c]
+                                + "' but the cell is outside the table");
+                    } else if (!comparator.equals(text, row[c])) {
+                        differences.add("(" + (firstRow + r) + ", " + (firstColumn + c) + "): expected '" + row[c]
+                                + "' but was '" + text + "'");
+                    }
+                }
+            }
+            return differences.isEmpty();
+        }
+
+        @Override
+        public String getDescription() {
+            StringBuilder strb = new StringBuilder("Table content differs in " + differences.size() + " cell(s):");
+            for (String difference : differences) {
+                strb.append("\n  ").append(difference);
+            }
+            return strb.toString();
+        }
+    }
+
     public static class TableOperator extends JTableOperator {
 
         public static class XJTableByCellFinder extends JTableByCellFinder {
@@ -1503,20 +1599,7 @@ public class JemmyDSL {
                                 return (false);
                             }
                         }
-                        JTable table = (JTable)comp;
-                        TableCellRenderer renderer = table.getCellRenderer(r, c);
-                        java.awt.Component renderer2 = renderer.getTableCellRendererComponent(table, table.getValueAt(r, c), false, false, r, c);                        
-                        Object value;
-                        if (renderer2 instanceof DefaultTableCellRenderer) {
-                            DefaultTableCellRenderer dtcr = (DefaultTableCellRenderer) renderer2;
-                            value = dtcr.getText();                            
-                        } else {
-                            value = table.getValueAt(r, c);
-                        }
-                        if (value == null) {
-                            value = "";
-                        }
-                        return (comparator.equals(value.toString(), label));
+                        return (comparator.equals(getCellText((JTable) comp, r, c), label));
                     }
 
                 return (false);
@@ -1536,6 +1619,57 @@ public class JemmyDSL {
 
         }
 
+        /**
+         * Gets the text shown in a table cell, which is the renderer text for the default renderers or the cell value
+         * otherwise.
+         *
+         * @param table The table
+         * @param row The row
+         * @param column The column
+         * @return The text, empty if the cell is empty
+         */
+        public static String getCellText(JTable table, int row, int column) {
+            TableCellRenderer renderer = table.getCellRenderer(row, column);
+            java.awt.Component rendererComponent = renderer.getTableCellRendererComponent(table,
+                    table.getValueAt(row, column), false, false, row, column);
+            Object value;
+            if (rendererComponent instanceof DefaultTableCellRenderer) {
+                value = ((DefaultTableCellRenderer) rendererComponent).getText();
+            } else {
+                value = table.getValueAt(row, column);
+            }
+            return value == null ? "" : value.toString();
+        }
+
+        /**
+         * Gets the texts of a region of the table in a single EDT call.
+         *
+         * @param table The table
+         * @param firstRow The first row of the region
+         * @param firstColumn The first column of the region
+         * @param rows The number of rows
+         * @param columns The number of columns
+         * @return The texts, null for the cells outside the table
+         */
+        public static String[][] getCellTexts(final JTable table, final int firstRow, final int firstColumn,
+                                              final int rows, final int columns) {
+            final String[][] texts = new String[rows][columns];
+            Runnable capture = new Runnable() {
+                @Override
+                public void run() {
+                    int rowCount = table.getRowCount();
+                    int columnCount = table.getColumnCount();
+                    for (int r = 0; r < rows && firstRow + r < rowCount; r++) {
+                        for (int c = 0; c < columns && firstColumn + c < columnCount; c++) {
+                            texts[r][c] = getCellText(table, firstRow + r, firstColumn + c);
+                        }
+                    }
+                }
+            };
+            runOnEventThread(capture);
+            return texts;
+        }
+
         public TableOperator(JTable b) {
             super(b);
         }
@@ -1606,7 +1740,7 @@ public class JemmyDSL {
         }
 
         public Row assertSelected(final boolean selected) {
-            component.waitState(new ComponentChooser() {
+            waitState(component, new ComponentChooser() {
                 @Override
                 public boolean checkComponent(java.awt.Component comp) {
                     return ((JTable) comp).isRowSelected(index) == selected;
@@ -1614,7 +1748,7 @@ public class JemmyDSL {
 
                 @Override
                 public String getDescription() {
-                    return null;
+                    return "row " + index + (selected ? " selected" : " not selected");
                 }
             });
             return this;
@@ -1655,7 +1789,7 @@ public class JemmyDSL {
         }
 
         public TableHeader assertTitle(final int col, final String title) {
-            component.waitState(new ComponentChooser() {
+            waitState(component, new ComponentChooser() {
                 @Override
                 public boolean checkComponent(java.awt.Component comp) {
                     return ((JTableHeader) comp).getColumnModel()
@@ -1666,7 +1800,7 @@ public class JemmyDSL {
 
                 @Override
                 public String getDescription() {
-                    return null;
+                    return "column " + col + " title " + title;
                 }
             });
             return this;
@@ -1781,7 +1915,7 @@ public class JemmyDSL {
         }
 
         public Slider assertValue(final int i) {
-            component.waitState(new ComponentChooser() {
+            waitState(component, new ComponentChooser() {
                 @Override
                 public boolean checkComponent(java.awt.Component comp) {
                     return ((JSlider) comp).getValue() == i;
@@ -1789,7 +1923,7 @@ public class JemmyDSL {
 
                 @Override
                 public String getDescription() {
-                    return null;
+                    return "value " + i;
                 }
             });
             return this;
@@ -1859,6 +1993,64 @@ public class JemmyDSL {
             return this;
         }
 
+        /**
+         * Fires a menu item directly, without opening the menus leading to it like
+         * {@link #clickMenu(long, String...)} does.
+         *
+         * @param texts The menu texts, the last one being the item text
+         * @return This
+         */
+        public MenuBar pushMenu(final String... texts) {
+            if (texts.length == 0) {
+                return this;
+            }
+            final JMenuBar bar = (JMenuBar) component.getSource();
+            final JMenuItem[] item = new JMenuItem[1];
+            runOnEventThread(new Runnable() {
+                @Override
+                public void run() {
+                    item[0] = MenuPathIndex.find(bar, texts, comparator);
+                }
+            });
+            fire(item[0]);
+            return this;
+        }
+
+        /**
+         * Fires a menu item directly, see {@link #pushMenu(String...)}.
+         *
+         * @param indexes The menu indexes, the last one being the item index
+         * @return This
+         */
+        public MenuBar pushMenu(final int... indexes) {
+            if (indexes.length == 0) {
+                return this;
+            }
+            final JMenuBar bar = (JMenuBar) component.getSource();
+            final JMenuItem[] item = new JMenuItem[1];
+            runOnEventThread(new Runnable() {
+                @Override
+                public void run() {
+                    item[0] = MenuPathIndex.find(bar, indexes);
+                }
+            });
+            fire(item[0]);
+            return this;
+        }
+
+        /**
+         * Clicks the item in the EDT, not waiting for it directly so that modal dialogs opened by it do not block.
+         */
+        private void fire(final JMenuItem item) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    item.doClick(0);
+                }
+            });
+            QueueTyper.waitQueue();
+        }
+
         @Override
         public JMenuBarOperator getComponent() {
             return component;
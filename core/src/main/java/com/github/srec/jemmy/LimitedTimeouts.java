@@ -0,0 +1,53 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.Timeouts;
+
+/**
+ * Timeouts which never exceed a limit, whatever their name, including the Jemmy defaults which are not set
+ * explicitly. Copies made from these timeouts, such as the ones Jemmy makes for each wait, keep the limit.
+ *
+ * @author Victor Tatai
+ */
+final class LimitedTimeouts extends Timeouts {
+    private final Timeouts base;
+    private final long limit;
+
+    /**
+     * @param base The timeouts to limit, timeouts set on this object take precedence over these
+     * @param limit The limit in ms
+     */
+    LimitedTimeouts(Timeouts base, long limit) {
+        this.base = base;
+        this.limit = limit;
+    }
+
+    @Override
+    public long getTimeout(String name) {
+        long timeout = super.contains(name) ? super.getTimeout(name) : base.getTimeout(name);
+        return timeout < 0 ? timeout : Math.min(timeout, limit);
+    }
+
+    @Override
+    public boolean contains(String name) {
+        // Called by the super constructor before base is set
+        return super.contains(name) || base != null && base.contains(name);
+    }
+
+    @Override
+    public Timeouts cloneThis() {
+        return new LimitedTimeouts(this, limit);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import com.github.srec.util.AWTTreeScanner;
+import com.github.srec.util.LruCache;
+import com.github.srec.util.ScannerMatcher;
+import com.github.srec.util.Utils;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A parsed component locator, such as <code>name=ok_button</code> or <code>text=OK</code>. Locators are parsed and
+ * compiled once per distinct text and cached, so commands executed repeatedly (in loops or methods) do not parse their
+ * locators again.
+ *
+ * @author Victor Tatai
+ */
+public final class Locator {
+    private static final int MAX_CACHE_SIZE = 1000;
+    private static final LruCache<String, Locator> cache = new LruCache<String, Locator>(MAX_CACHE_SIZE);
+
+    /**
+     * How the component is searched for, in order of precedence when the locator has more than one key.
+     */
+    public enum Strategy {
+        NAME, LABEL, TEXT, ID, TITLE, UNSUPPORTED
+    }
+
+    private final String text;
+    /**
+     * All key/value pairs in the locator.
+     */
+    private final Map<String, String> parts;
+    /**
+     * The text before the first '=', "name" if there is none.
+     */
+    private final String type;
+    /**
+     * The text after the first '='.
+     */
+    private final String value;
+    private final Strategy strategy;
+    /**
+     * The matcher used to scan the component tree, null if the locator type cannot be scanned for.
+     */
+    private final ScannerMatcher matcher;
+
+    private Locator(String text) {
+        this.text = text;
+        parts = Collections.unmodifiableMap(Utils.parseLocator(text));
+        int i = text.indexOf('=');
+        if (i == -1) {
+            type = "name";
+            value = text.trim();
+        } else {
+            type = text.substring(0, i).trim();
+            value = text.substring(i + 1).trim();
+        }
+        strategy = parts.containsKey("name") ? Strategy.NAME
+                : parts.containsKey("label") ? Strategy.LABEL
+                : parts.containsKey("text") ? Strategy.TEXT
+                : parts.containsKey("id") ? Strategy.ID
+                : parts.containsKey("title") ? Strategy.TITLE
+                : Strategy.UNSUPPORTED;
+        matcher = compileMatcher(type, value);
+    }
+
+    private static ScannerMatcher compileMatcher(String type, String value) {
+        if (type.equals("name")) return new AWTTreeScanner.NameScannerMatcher(value);
+        if (type.equals("title")) return new AWTTreeScanner.TitleScannerMatcher(value);
+        if (type.equals("text")) return new AWTTreeScanner.TextScannerMatcher(value);
+        return null;
+    }
+
+    /**
+     * Gets the compiled locator for the given text, parsing it if it is not cached.
+     *
+     * @param text The locator text
+     * @return The locator
+     */
+    public static Locator compile(String text) {
+        Locator locator = cache.get(text);
+        if (locator == null) {
+            locator = new Locator(text);
+            cache.put(text, locator);
+        }
+        return locator;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public ScannerMatcher getMatcher() {
+        return matcher;
+    }
+
+    public boolean contains(String key) {
+        return parts.containsKey(key);
+    }
+
+    /**
+     * Gets the value of one of the keys in the locator.
+     *
+     * @param key The key, for example "text"
+     * @return The value, null if the key is not present
+     */
+    public String get(String key) {
+        return parts.get(key);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.operators.Operator.StringComparator;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves menu paths, given by the item texts or indexes, against the menus of a menu bar without opening them. The
+ * items found are cached in the menu bar, and the cache is dropped as soon as a menu on a cached path gets or loses
+ * items or an item on it changes its text. All methods must be called in the EDT.
+ *
+ * @author Victor Tatai
+ */
+final class MenuPathIndex implements ContainerListener, PropertyChangeListener {
+    private final Map<String, JMenuItem> items = new HashMap<String, JMenuItem>();
+    /**
+     * The menu bar, menus and items listened to, only the ones on the cached paths.
+     */
+    private final List<Component> listened = new ArrayList<Component>();
+
+    private MenuPathIndex() {
+    }
+
+    private static MenuPathIndex getIndex(JMenuBar bar) {
+        MenuPathIndex index = (MenuPathIndex) bar.getClientProperty(MenuPathIndex.class);
+        if (index == null) {
+            index = new MenuPathIndex();
+            bar.putClientProperty(MenuPathIndex.class, index);
+        }
+        return index;
+    }
+
+    /**
+     * Finds a menu item by the texts of the menus leading to it. The cache assumes the same comparator is always used.
+     *
+     * @param bar The menu bar
+     * @param texts The menu texts, the last one being the item text
+     * @param comparator Compares the texts
+     * @return The item, visible and enabled like all the menus leading to it
+     * @throws JemmyDSLException in case the item is not found or is disabled
+     */
+    static JMenuItem find(JMenuBar bar, String[] texts, StringComparator comparator) {
+        MenuPathIndex index = getIndex(bar);
+        String key = "text:" + Arrays.asList(texts);
+        JMenuItem item = index.items.get(key);
+        if (item != null) {
+            if (checkEnabled(item, texts)) return item;
+            // Hidden since it was cached, another visible item may have the same text
+            index.items.remove(key);
+        }
+        index.listen(bar);
+        for (int i = 0; i < texts.length; i++) {
+            item = i == 0 ? findMenu(bar, texts[0], comparator)
+                    : findItem(index.getMenu(item, texts), texts[i], comparator);
+            if (item == null) throw new JemmyDSLException("Menu item not found: " + Arrays.asList(texts));
+            index.listen(item);
+        }
+        index.items.put(key, item);
+        if (!checkEnabled(item, texts)) throw new JemmyDSLException("Menu item not found: " + Arrays.asList(texts));
+        return item;
+    }
+
+    /**
+     * Finds a menu item by the indexes of the menus leading to it, counting separators.
+     *
+     * @param bar The menu bar
+     * @param indexes The indexes
+     * @return The item, visible and enabled like all the menus leading to it
+     * @throws JemmyDSLException in case the item is not found, is hidden or is disabled
+     */
+    static JMenuItem find(JMenuBar bar, int[] indexes) {
+        MenuPathIndex index = getIndex(bar);
+        String key = "index:" + Arrays.toString(indexes);
+        String[] path = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            path[i] = String.valueOf(indexes[i]);
+        }
+        JMenuItem item = index.items.get(key);
+        if (item == null) {
+            index.listen(bar);
+            for (int i = 0; i < indexes.length; i++) {
+                Component child = null;
+                if (i == 0) {
+                    if (indexes[0] >= 0 && indexes[0] < bar.getMenuCount()) child = bar.getMenu(indexes[0]);
+                } else {
+                    JMenu menu = index.getMenu(item, path);
+                    if (indexes[i] >= 0 && indexes[i] < menu.getMenuComponentCount()) {
+                        child = menu.getMenuComponent(indexes[i]);
+                    }
+                }
+                if (!(child instanceof JMenuItem)) {
+                    throw new JemmyDSLException("Menu item not found: " + Arrays.asList(path));
+                }
+                item = (JMenuItem) child;
+                index.listen(item);
+            }
+            index.items.put(key, item);
+        }
+        if (!checkEnabled(item, path)) throw new JemmyDSLException("Menu item not visible: " + Arrays.asList(path));
+        return item;
+    }
+
+    private static JMenuItem findMenu(JMenuBar bar, String text, StringComparator comparator) {
+        for (int i = 0; i < bar.getMenuCount(); i++) {
+            JMenu menu = bar.getMenu(i);
+            if (menu != null && menu.isVisible() && comparator.equals(menu.getText(), text)) return menu;
+        }
+        return null;
+    }
+
+    private static JMenuItem findItem(JMenu menu, String text, StringComparator comparator) {
+        for (Component child : menu.getMenuComponents()) {
+            if (child instanceof JMenuItem && child.isVisible()
+                    && comparator.equals(((JMenuItem) child).getText(), text)) {
+                return (JMenuItem) child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the menu found at the previous level, listening to its items.
+     */
+    private JMenu getMenu(JMenuItem item, String[] path) {
+        if (!(item instanceof JMenu)) throw new JemmyDSLException("Not a menu: " + item.getText() + " in "
+                + Arrays.asList(path));
+        JMenu menu = (JMenu) item;
+        listen(menu.getPopupMenu());
+        return menu;
+    }
+
+    /**
+     * Checks the item and the menus leading to it, which may have been hidden or disabled since the item was cached.
+     *
+     * @return false if the item or one of the menus is hidden
+     * @throws JemmyDSLException in case they are all visible but one of them is disabled
+     */
+    private static boolean checkEnabled(JMenuItem item, String[] path) {
+        boolean enabled = true;
+        for (Component c = item; c != null && !(c instanceof JMenuBar); c = getParentMenu(c)) {
+            if (!c.isVisible()) return false;
+            enabled &= c.isEnabled();
+        }
+        if (!enabled) throw new JemmyDSLException("Menu item disabled: " + Arrays.asList(path));
+        return true;
+    }
+
+    private static Component getParentMenu(Component c) {
+        Component parent = c.getParent();
+        return parent instanceof JPopupMenu ? ((JPopupMenu) parent).getInvoker() : parent;
+    }
+
+    private void listen(Component c) {
+        if (listened.contains(c)) return;
+        listened.add(c);
+        if (c instanceof JMenuItem) {
+            c.addPropertyChangeListener(AbstractButton.TEXT_CHANGED_PROPERTY, this);
+        } else {
+            ((java.awt.Container) c).addContainerListener(this);
+        }
+    }
+
+    private void clear() {
+        for (Component c : listened) {
+            if (c instanceof JMenuItem) {
+                c.removePropertyChangeListener(AbstractButton.TEXT_CHANGED_PROPERTY, this);
+            } else {
+                ((java.awt.Container) c).removeContainerListener(this);
+            }
+        }
+        listened.clear();
+        items.clear();
+    }
+
+    @Override
+    public void componentAdded(ContainerEvent e) {
+        clear();
+    }
+
+    @Override
+    public void componentRemoved(ContainerEvent e) {
+        clear();
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        clear();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import javax.swing.*;
+import javax.swing.table.TableModel;
+import javax.swing.tree.TreeModel;
+
+/**
+ * An immutable copy of a region of a list, combo box, table or tree model, taken in a single EDT call so that it is
+ * consistent even if the model keeps changing, and so that the model is not accessed outside the EDT. The values are
+ * kept in a single array, row by row, and the comparisons run on the copy without creating intermediate collections.
+ *
+ * @author Victor Tatai
+ */
+public final class ModelSnapshot {
+    private final Object[] values;
+    private final int rows;
+    private final int columns;
+
+    private ModelSnapshot(Object[] values, int rows, int columns) {
+        this.values = values;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Copies all the elements of a list model, which may also be a combo box model.
+     *
+     * @param model The model
+     * @return The snapshot, with one column
+     */
+    @SuppressWarnings("rawtypes")
+    public static ModelSnapshot of(final ListModel model) {
+        final ModelSnapshot[] snapshot = new ModelSnapshot[1];
+        JemmyDSL.runOnEventThread(new Runnable() {
+            @Override
+            public void run() {
+                Object[] values = new Object[model.getSize()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = model.getElementAt(i);
+                }
+                snapshot[0] = new ModelSnapshot(values, values.length, 1);
+            }
+        });
+        return snapshot[0];
+    }
+
+    /**
+     * Copies a region of a table model. The region is clipped to the model.
+     *
+     * @param model The model
+     * @param firstRow The first row of the region, in model coordinates
+     * @param firstColumn The first column of the region, in model coordinates
+     * @param rows The maximum number of rows
+     * @param columns The maximum number of columns
+     * @return The snapshot
+     */
+    public static ModelSnapshot of(final TableModel model, final int firstRow, final int firstColumn, final int rows,
+                                   final int columns) {
+        final ModelSnapshot[] snapshot = new ModelSnapshot[1];
+        JemmyDSL.runOnEventThread(new Runnable() {
+            @Override
+            public void run() {
+                int rowCount = Math.max(0, Math.min(rows, model.getRowCount() - firstRow));
+                int columnCount = Math.max(0, Math.min(columns, model.getColumnCount() - firstColumn));
+                Object[] values = new Object[rowCount * columnCount];
+                for (int r = 0; r < rowCount; r++) {
+                    for (int c = 0; c < columnCount; c++) {
+                        values[r * columnCount + c] = model.getValueAt(firstRow + r, firstColumn + c);
+                    }
+                }
+                snapshot[0] = new ModelSnapshot(values, rowCount, columnCount);
+            }
+        });
+        return snapshot[0];
+    }
+
+    /**
+     * Copies the children of a tree node.
+     *
+     * @param model The model
+     * @param parent The parent node
+     * @return The snapshot, with one column
+     */
+    public static ModelSnapshot of(final TreeModel model, final Object parent) {
+        final ModelSnapshot[] snapshot = new ModelSnapshot[1];
+        JemmyDSL.runOnEventThread(new Runnable() {
+            @Override
+            public void run() {
+                Object[] values = new Object[model.getChildCount(parent)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = model.getChild(parent, i);
+                }
+                snapshot[0] = new ModelSnapshot(values, values.length, 1);
+            }
+        });
+        return snapshot[0];
+    }
+
+    /**
+     * Gets the number of values, which is rows * columns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * Gets a value by its position, counting row by row.
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public Object get(int row, int column) {
+        return values[row * columns + column];
+    }
+
+    /**
+     * Gets the text of a value, empty for null values.
+     */
+    public String getText(int index) {
+        Object value = values[index];
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Compares the value texts with the expected ones.
+     *
+     * @param expected The expected texts, row by row
+     * @return The index of the first difference, -1 if there are none, or the smallest size if the sizes differ and
+     * one is a prefix of the other
+     */
+    public int firstDifference(String[] expected) {
+        int length = Math.min(expected.length, values.length);
+        for (int i = 0; i < length; i++) {
+            if (!expected[i].equals(getText(i))) return i;
+        }
+        return expected.length == values.length ? -1 : length;
+    }
+
+    /**
+     * Checks that the values are in ascending order, using their natural ordering.
+     *
+     * @return The index of the first value greater than its successor, -1 if the values are sorted
+     * @throws ClassCastException in case the values are not comparable
+     */
+    @SuppressWarnings("unchecked")
+    public int firstUnsorted() {
+        for (int i = 0; i < values.length - 1; i++) {
+            if (((Comparable<Object>) values[i + 1]).compareTo(values[i]) < 0) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a value by its text.
+     *
+     * @param text The text
+     * @return The index of the first value with the text, -1 if there is none
+     */
+    public int indexOf(String text) {
+        for (int i = 0; i < values.length; i++) {
+            if (text.equals(getText(i))) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.ComponentChooser;
+import org.netbeans.jemmy.JemmyException;
+import org.netbeans.jemmy.operators.AbstractButtonOperator;
+import org.netbeans.jemmy.operators.ContainerOperator;
+import org.netbeans.jemmy.operators.JButtonOperator;
+import org.netbeans.jemmy.operators.JCheckBoxOperator;
+import org.netbeans.jemmy.operators.JComboBoxOperator;
+import org.netbeans.jemmy.operators.JComponentOperator;
+import org.netbeans.jemmy.operators.JInternalFrameOperator;
+import org.netbeans.jemmy.operators.JLabelOperator;
+import org.netbeans.jemmy.operators.JListOperator;
+import org.netbeans.jemmy.operators.JMenuBarOperator;
+import org.netbeans.jemmy.operators.JPopupMenuOperator;
+import org.netbeans.jemmy.operators.JProgressBarOperator;
+import org.netbeans.jemmy.operators.JRadioButtonOperator;
+import org.netbeans.jemmy.operators.JScrollBarOperator;
+import org.netbeans.jemmy.operators.JScrollPaneOperator;
+import org.netbeans.jemmy.operators.JTabbedPaneOperator;
+import org.netbeans.jemmy.operators.JTableHeaderOperator;
+import org.netbeans.jemmy.operators.JTableOperator;
+import org.netbeans.jemmy.operators.JTextAreaOperator;
+import org.netbeans.jemmy.operators.JTextComponentOperator;
+import org.netbeans.jemmy.operators.JTextFieldOperator;
+import org.netbeans.jemmy.operators.JTreeOperator;
+
+import javax.swing.*;
+import javax.swing.table.JTableHeader;
+import javax.swing.text.JTextComponent;
+import java.awt.Component;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates the Jemmy operators and the srec wrappers for Swing components. The supported component classes are
+ * registered once, in order, and the binding found for each concrete component class is remembered, so creating an
+ * operator does not need to go through the whole list again. The reflective constructors used to create operators by
+ * class are also looked up only once.
+ *
+ * @author Victor Tatai
+ */
+final class OperatorFactory {
+    /**
+     * Creates the operator and the wrapper for one Swing component class and its subclasses.
+     */
+    abstract static class Binding {
+        private final Class<?> componentClass;
+        /**
+         * The operators wrapped by this binding, which may be a superclass of the operators it creates.
+         */
+        private final Class<?> operatorClass;
+
+        Binding(Class<?> componentClass, Class<?> operatorClass) {
+            this.componentClass = componentClass;
+            this.operatorClass = operatorClass;
+        }
+
+        abstract JComponentOperator createOperator(Component component);
+
+        abstract JemmyDSL.Component wrap(JComponentOperator operator);
+    }
+
+    /**
+     * Marks classes which have no binding.
+     */
+    private static final Binding NONE = new Binding(Void.class, Void.class) {
+        @Override
+        JComponentOperator createOperator(Component component) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        JemmyDSL.Component wrap(JComponentOperator operator) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    /**
+     * The bindings in order of precedence, subclasses must come before their superclasses.
+     */
+    private static final List<Binding> bindings = new ArrayList<Binding>();
+    private static final ConcurrentMap<Class<?>, Binding> byComponentClass = new ConcurrentHashMap<Class<?>, Binding>();
+    private static final ConcurrentMap<Class<?>, Binding> byOperatorClass = new ConcurrentHashMap<Class<?>, Binding>();
+    private static final ConcurrentMap<Object, Constructor<?>> constructors =
+            new ConcurrentHashMap<Object, Constructor<?>>();
+
+    static {
+        register(new Binding(JComboBox.class, JComboBoxOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JComboBoxOperator((JComboBox) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.ComboBox((JComboBoxOperator) operator);
+            }
+        });
+        register(new Binding(JLabel.class, JLabelOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JLabelOperator((JLabel) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.Label((JLabelOperator) operator);
+            }
+        });
+        register(new Binding(JProgressBar.class, JProgressBarOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JProgressBarOperator((JProgressBar) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.ProgressBar((JProgressBarOperator) operator);
+            }
+        });
+        register(new Binding(JTabbedPane.class, JTabbedPaneOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JTabbedPaneOperator((JTabbedPane) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.TabbedPane((JTabbedPaneOperator) operator);
+            }
+        });
+        register(new Binding(JTableHeader.class, JTableHeaderOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JTableHeaderOperator((JTableHeader) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.TableHeader((JTableHeaderOperator) operator);
+            }
+        });
+        register(new Binding(JTextArea.class, JTextAreaOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JTextAreaOperator((JTextArea) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.TextArea((JTextAreaOperator) operator);
+            }
+        });
+        register(new Binding(JTree.class, JTreeOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JTreeOperator((JTree) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.Tree((JTreeOperator) operator);
+            }
+        });
+        register(new Binding(JTextComponent.class, JTextComponentOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JTextFieldOperator((JTextField) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.TextField((JTextFieldOperator) operator);
+            }
+        });
+        register(new Binding(JScrollPane.class, JScrollPaneOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JScrollPaneOperator((JScrollPane) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.ScrollPane((JScrollPaneOperator) operator);
+            }
+        });
+        register(new Binding(JCheckBox.class, JCheckBoxOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JCheckBoxOperator((JCheckBox) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.CheckBox((JCheckBoxOperator) operator);
+            }
+        });
+        register(new Binding(JRadioButton.class, JRadioButtonOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JRadioButtonOperator((JRadioButton) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.RadioButton((JRadioButtonOperator) operator);
+            }
+        });
+        register(new Binding(JButton.class, JButtonOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JButtonOperator((JButton) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.Button((JButtonOperator) operator);
+            }
+        });
+        register(new Binding(AbstractButton.class, AbstractButtonOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new AbstractButtonOperator((AbstractButton) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.GenericButton((AbstractButtonOperator) operator);
+            }
+        });
+        register(new Binding(JTable.class, JTableOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JemmyDSL.TableOperator((JTable) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.Table((JTableOperator) operator);
+            }
+        });
+        register(new Binding(JMenuBar.class, JMenuBarOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JMenuBarOperator((JMenuBar) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.MenuBar((JMenuBarOperator) operator);
+            }
+        });
+        register(new Binding(JScrollBar.class, JScrollBarOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JScrollBarOperator((JScrollBar) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.ScrollBar((JScrollBarOperator) operator);
+            }
+        });
+        register(new Binding(JInternalFrame.class, JInternalFrameOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JInternalFrameOperator((JInternalFrame) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.InternalFrame((JInternalFrame) operator.getSource());
+            }
+        });
+        register(new Binding(JList.class, JListOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JListOperator((JList) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.JList((JListOperator) operator);
+            }
+        });
+        register(new Binding(JPopupMenu.class, JPopupMenuOperator.class) {
+            @Override
+            JComponentOperator createOperator(Component component) {
+                return new JPopupMenuOperator((JPopupMenu) component);
+            }
+
+            @Override
+            JemmyDSL.Component wrap(JComponentOperator operator) {
+                return new JemmyDSL.PopupMenu((JPopupMenuOperator) operator);
+            }
+        });
+    }
+
+    private OperatorFactory() {
+    }
+
+    private static void register(Binding binding) {
+        bindings.add(binding);
+    }
+
+    /**
+     * Creates the operator for a component.
+     *
+     * @param component The component
+     * @return The operator
+     * @throws JemmyDSLException in case the component is not supported
+     */
+    static JComponentOperator createOperator(Component component) {
+        Binding binding = byComponentClass.get(component.getClass());
+        if (binding == null) {
+            binding = NONE;
+            for (Binding b : bindings) {
+                if (b.componentClass.isAssignableFrom(component.getClass())) {
+                    binding = b;
+                    break;
+                }
+            }
+            byComponentClass.putIfAbsent(component.getClass(), binding);
+        }
+        if (binding == NONE) throw new JemmyDSLException("Unsupported find type " + component);
+        return binding.createOperator(component);
+    }
+
+    /**
+     * Creates the srec wrapper for an operator.
+     *
+     * @param operator The operator
+     * @return The wrapper
+     * @throws JemmyDSLException in case the operator is not supported
+     */
+    static JemmyDSL.Component wrap(JComponentOperator operator) {
+        Binding binding = byOperatorClass.get(operator.getClass());
+        if (binding == null) {
+            binding = NONE;
+            for (Binding b : bindings) {
+                if (b.operatorClass.isAssignableFrom(operator.getClass())) {
+                    binding = b;
+                    break;
+                }
+            }
+            byOperatorClass.putIfAbsent(operator.getClass(), binding);
+        }
+        if (binding == NONE) throw new JemmyDSLException("Unsupported find type " + operator);
+        return binding.wrap(operator);
+    }
+
+    /**
+     * Creates an operator of the given class which looks up its component under parent.
+     *
+     * @param clazz The operator class, must have a (ContainerOperator, ComponentChooser) constructor
+     * @param parent The parent operator
+     * @param chooser The chooser
+     * @return The operator
+     */
+    @SuppressWarnings({"unchecked"})
+    static <X extends ContainerOperator> X create(Class<X> clazz, ContainerOperator parent,
+                                                  ComponentChooser chooser) {
+        try {
+            Constructor<X> c = (Constructor<X>) constructors.get(clazz);
+            if (c == null) {
+                c = clazz.getConstructor(ContainerOperator.class, ComponentChooser.class);
+                constructors.putIfAbsent(clazz, c);
+            }
+            return c.newInstance(parent, chooser);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Creates an operator of the given class for a component.
+     *
+     * @param clazz The operator class, must have a constructor with a single parameter which accepts componentClass
+     * @param componentClass The component class
+     * @param component The component
+     * @return The operator
+     */
+    @SuppressWarnings({"unchecked"})
+    static <X extends ContainerOperator> X create(Class<X> clazz, Class<?> componentClass, Component component) {
+        try {
+            Object key = Arrays.asList(clazz, componentClass);
+            Constructor<X> c = (Constructor<X>) constructors.get(key);
+            if (c == null) {
+                c = findConstructor(clazz, componentClass);
+                constructors.putIfAbsent(key, c);
+            }
+            return c.newInstance(component);
+        } catch (JemmyDSLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private static <X> Constructor<X> findConstructor(Class<X> clazz, Class<?> componentClass) {
+        Constructor<X>[] cs = (Constructor<X>[]) clazz.getConstructors();
+        for (Constructor<X> c : cs) {
+            final Class<?>[] types = c.getParameterTypes();
+            if (types.length == 1 && types[0].isAssignableFrom(componentClass)) {
+                return c;
+            }
+        }
+        throw new JemmyDSLException("Could not find suitable constructor in class "
+                + clazz.getCanonicalName());
+    }
+
+    private static RuntimeException rethrow(Exception e) {
+        // Check to see if the nested exception was caused by a regular Jemmy exception
+        if (e.getCause() != null && e.getCause() instanceof JemmyException) {
+            return (JemmyException) e.getCause();
+        }
+        return new JemmyDSLException(e);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.CharBindingMap;
+import org.netbeans.jemmy.JemmyProperties;
+import org.netbeans.jemmy.operators.ComponentOperator;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.KeyEvent;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Types text by posting key events to the AWT event queue, like the Jemmy queue mode, but without switching the global
+ * Jemmy dispatching model. Once the events are posted it waits until the EDT processes a marker posted after them, so
+ * the text is in the component when typing returns.
+ *
+ * @author Victor Tatai
+ */
+final class QueueTyper {
+    private QueueTyper() {
+    }
+
+    /**
+     * Types text in a component, which gets the focus first.
+     *
+     * @param op The component operator
+     * @param text The text
+     */
+    static void type(ComponentOperator op, String text) {
+        op.requestFocus();
+        // Posted key events go to the focus owner
+        op.waitHasFocus();
+        Component target = op.getSource();
+        EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
+        CharBindingMap map = JemmyProperties.getCurrentCharBindingMap();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int key = map.getCharKey(c);
+            int modifiers = map.getCharModifiers(c);
+            long when = System.currentTimeMillis();
+            queue.postEvent(new KeyEvent(target, KeyEvent.KEY_PRESSED, when, modifiers, key, c));
+            queue.postEvent(new KeyEvent(target, KeyEvent.KEY_TYPED, when, modifiers, KeyEvent.VK_UNDEFINED, c));
+            queue.postEvent(new KeyEvent(target, KeyEvent.KEY_RELEASED, when, modifiers, key, c));
+        }
+        waitQueue();
+    }
+
+    /**
+     * Waits until the EDT processes all the events posted so far.
+     */
+    static void waitQueue() {
+        if (EventQueue.isDispatchThread()) return;
+        try {
+            EventQueue.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        } catch (InterruptedException e) {
+            throw new JemmyDSLException(e);
+        } catch (InvocationTargetException e) {
+            throw new JemmyDSLException(e);
+        }
+    }
+}
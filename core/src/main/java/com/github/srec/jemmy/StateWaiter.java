@@ -0,0 +1,273 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.ComponentChooser;
+import org.netbeans.jemmy.TimeoutExpiredException;
+import org.netbeans.jemmy.operators.ComponentOperator;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.event.TableColumnModelEvent;
+import javax.swing.event.TableColumnModelListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
+import javax.swing.table.TableModel;
+import javax.swing.tree.TreeModel;
+import java.awt.Component;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Waits for a component to reach some state, checking the state again as soon as the component fires an event, instead
+ * of checking it at a fixed interval like the Jemmy waiters. The listeners used depend on the component: property
+ * changes for all components, item and change events for buttons and sliders, selection events for lists and tables,
+ * model events for tables and trees and column events for table headers. The state is also checked every
+ * {@link #SAFETY_INTERVAL} ms in case it changes without an event.
+ *
+ * @author Victor Tatai
+ */
+final class StateWaiter implements PropertyChangeListener, ItemListener, ChangeListener, ListSelectionListener,
+        TableColumnModelListener, TableModelListener, TreeModelListener {
+    static final long SAFETY_INTERVAL = 100;
+
+    private final Component component;
+    /**
+     * Set by the listeners whenever the component fires an event.
+     */
+    private boolean changed;
+    /**
+     * Removes the listeners once the wait is over.
+     */
+    private final List<Runnable> removers = new ArrayList<Runnable>();
+
+    private StateWaiter(Component component) {
+        this.component = component;
+    }
+
+    /**
+     * Waits until the chooser accepts the operator component.
+     *
+     * @param op The operator
+     * @param chooser Checks the component state
+     * @param timeoutName The name of the operator timeout to use, such as "ComponentOperator.WaitStateTimeout"
+     * @throws InterruptedException in case the thread is interrupted while waiting
+     * @throws TimeoutExpiredException in case the state is not reached before the timeout expires
+     */
+    static void waitState(ComponentOperator op, ComponentChooser chooser, String timeoutName)
+            throws InterruptedException {
+        StateWaiter waiter = new StateWaiter(op.getSource());
+        waiter.listen();
+        try {
+            waiter.await(chooser, op.getTimeouts().getTimeout(timeoutName));
+        } finally {
+            waiter.unlisten();
+        }
+    }
+
+    private void await(ComponentChooser chooser, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (true) {
+            synchronized (this) {
+                changed = false;
+            }
+            if (chooser.checkComponent(component)) return;
+            long remaining = deadline - System.currentTimeMillis();
+            // In the EDT the state cannot change while waiting, since the EDT is the one which would change it
+            if (remaining <= 0 || SwingUtilities.isEventDispatchThread()) {
+                throw new TimeoutExpiredException("Waiting for " + chooser.getDescription() + " on "
+                        + component.getClass().getName());
+            }
+            synchronized (this) {
+                if (!changed) wait(Math.min(remaining, SAFETY_INTERVAL));
+            }
+        }
+    }
+
+    private synchronized void signal() {
+        changed = true;
+        notifyAll();
+    }
+
+    private void listen() {
+        component.addPropertyChangeListener(this);
+        removers.add(new Runnable() {
+            @Override
+            public void run() {
+                component.removePropertyChangeListener(StateWaiter.this);
+            }
+        });
+        if (component instanceof AbstractButton) {
+            final AbstractButton button = (AbstractButton) component;
+            button.addItemListener(this);
+            button.addChangeListener(this);
+            removers.add(new Runnable() {
+                @Override
+                public void run() {
+                    button.removeItemListener(StateWaiter.this);
+                    button.removeChangeListener(StateWaiter.this);
+                }
+            });
+        } else if (component instanceof JSlider) {
+            final JSlider slider = (JSlider) component;
+            slider.addChangeListener(this);
+            removers.add(new Runnable() {
+                @Override
+                public void run() {
+                    slider.removeChangeListener(StateWaiter.this);
+                }
+            });
+        } else if (component instanceof JList) {
+            final JList list = (JList) component;
+            list.addListSelectionListener(this);
+            removers.add(new Runnable() {
+                @Override
+                public void run() {
+                    list.removeListSelectionListener(StateWaiter.this);
+                }
+            });
+        } else if (component instanceof JTable) {
+            final ListSelectionModel model = ((JTable) component).getSelectionModel();
+            model.addListSelectionListener(this);
+            final TableModel tableModel = ((JTable) component).getModel();
+            tableModel.addTableModelListener(this);
+            removers.add(new Runnable() {
+                @Override
+                public void run() {
+                    model.removeListSelectionListener(StateWaiter.this);
+                    tableModel.removeTableModelListener(StateWaiter.this);
+                }
+            });
+        } else if (component instanceof JTree) {
+            final JTree tree = (JTree) component;
+            final TreeModel model = tree.getModel();
+            if (model != null) {
+                model.addTreeModelListener(this);
+                removers.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        model.removeTreeModelListener(StateWaiter.this);
+                    }
+                });
+            }
+        } else if (component instanceof JTableHeader) {
+            final TableColumnModel model = ((JTableHeader) component).getColumnModel();
+            model.addColumnModelListener(this);
+            final List<TableColumn> columns = new ArrayList<TableColumn>();
+            for (Enumeration<TableColumn> e = model.getColumns(); e.hasMoreElements();) {
+                TableColumn column = e.nextElement();
+                column.addPropertyChangeListener(this);
+                columns.add(column);
+            }
+            removers.add(new Runnable() {
+                @Override
+                public void run() {
+                    model.removeColumnModelListener(StateWaiter.this);
+                    for (TableColumn column : columns) {
+                        column.removePropertyChangeListener(StateWaiter.this);
+                    }
+                }
+            });
+        }
+    }
+
+    private void unlisten() {
+        for (Runnable remover : removers) {
+            remover.run();
+        }
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        signal();
+    }
+
+    @Override
+    public void itemStateChanged(ItemEvent e) {
+        signal();
+    }
+
+    @Override
+    public void stateChanged(ChangeEvent e) {
+        signal();
+    }
+
+    @Override
+    public void valueChanged(ListSelectionEvent e) {
+        signal();
+    }
+
+    @Override
+    public void columnAdded(TableColumnModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void columnRemoved(TableColumnModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void columnMoved(TableColumnModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void columnMarginChanged(ChangeEvent e) {
+        // Only the column sizes changed
+    }
+
+    @Override
+    public void columnSelectionChanged(ListSelectionEvent e) {
+        signal();
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        signal();
+    }
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        signal();
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.TimeoutExpiredException;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Searches the rows of a table by column values directly in its model, so that tables with millions of rows can be
+ * searched without scrolling through them. The model is read in the EDT in chunks of {@link #CHUNK_SIZE} rows, letting
+ * the application run between chunks. Values are compared by their exact text, null values being the empty string.<br>
+ * <br>
+ *
+ * A search may also use an index of the values of its first column, built in chunks the first time it is needed. The
+ * index is kept up to date for updated, appended and trailing deleted rows, and dropped on any other model change. A
+ * search whose index is dropped more than {@link #MAX_INVALIDATIONS} times, as happens with tables which change all
+ * the time, scans the model instead.
+ *
+ * @author Victor Tatai
+ */
+final class TableRowFinder {
+    static final int CHUNK_SIZE = 10000;
+    static final int MAX_INVALIDATIONS = 3;
+    /**
+     * The value indexes of each model, only accessed in the EDT.
+     */
+    private static final Map<TableModel, ModelIndex> indexes = new WeakHashMap<TableModel, ModelIndex>();
+
+    private TableRowFinder() {
+    }
+
+    /**
+     * Finds the first row, in model order, which has the given values and is visible in the table.
+     *
+     * @param table The table
+     * @param values The expected texts keyed by column, which is either the model column index or the column name
+     * @param indexed true to use the value index of the first column
+     * @param deadline The time, in ms since the epoch, after which the search gives up. At least one chunk is always
+     * searched
+     * @return The view index of the row, -1 if there is none
+     * @throws TimeoutExpiredException in case the search is not done before the deadline
+     */
+    static int findRow(JTable table, Map<String, String> values, boolean indexed, long deadline) {
+        if (values.isEmpty()) throw new IllegalParametersException("No column values to search for");
+        Search search = indexed ? new IndexedSearch(table, values) : new Search(table, values);
+        while (true) {
+            JemmyDSL.runOnEventThread(search);
+            if (search.done) return search.result;
+            if (System.currentTimeMillis() > deadline) {
+                throw new TimeoutExpiredException("Searching rows with " + values);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows in the value index of a model column, for tests. Must be called in the EDT.
+     *
+     * @param model The model
+     * @param column The model column index
+     * @return The number of rows indexed, -1 if the column has no index
+     */
+    static int getIndexedRowCount(TableModel model, int column) {
+        ModelIndex modelIndex = indexes.get(model);
+        ColumnIndex index = modelIndex == null ? null : modelIndex.columns.get(column);
+        return index == null ? -1 : index.built;
+    }
+
+    private static String getText(TableModel model, int row, int column) {
+        Object value = model.getValueAt(row, column);
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Scans the model rows, each run scanning the next chunk.
+     */
+    private static class Search implements Runnable {
+        protected final JTable table;
+        private final Map<String, String> values;
+        protected TableModel model;
+        protected int[] columns;
+        protected String[] texts;
+        protected int next;
+        private boolean done;
+        private int result = -1;
+
+        private Search(JTable table, Map<String, String> values) {
+            this.table = table;
+            this.values = values;
+        }
+
+        @Override
+        public void run() {
+            if (model != table.getModel()) start();
+            int end = Math.min(model.getRowCount(), next + CHUNK_SIZE);
+            for (; next < end; next++) {
+                if (matches(next, 0) && found(next)) return;
+            }
+            done = next >= model.getRowCount();
+        }
+
+        /**
+         * Starts the search over, also called when the table model is replaced.
+         */
+        protected void start() {
+            model = table.getModel();
+            next = 0;
+            columns = new int[values.size()];
+            texts = new String[values.size()];
+            int i = 0;
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                columns[i] = findColumn(entry.getKey());
+                texts[i++] = entry.getValue();
+            }
+        }
+
+        private int findColumn(String column) {
+            try {
+                int index = Integer.parseInt(column);
+                if (index >= 0 && index < model.getColumnCount()) return index;
+            } catch (NumberFormatException e) {
+                for (int i = 0; i < model.getColumnCount(); i++) {
+                    if (column.equals(model.getColumnName(i))) return i;
+                }
+            }
+            throw new IllegalParametersException("Table has no column " + column);
+        }
+
+        /**
+         * Checks the expected values of a row starting at the given criterion.
+         */
+        protected boolean matches(int row, int first) {
+            for (int i = first; i < columns.length; i++) {
+                if (!texts[i].equals(getText(model, row, columns[i]))) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Ends the search if the row is visible in the table.
+         */
+        protected boolean found(int row) {
+            int view = table.convertRowIndexToView(row);
+            if (view == -1) return false;
+            result = view;
+            done = true;
+            return true;
+        }
+
+        protected void finish() {
+            done = true;
+        }
+    }
+
+    /**
+     * Looks up the candidate rows in the index of the first column, building it first if needed.
+     */
+    private static class IndexedSearch extends Search {
+        private ColumnIndex index;
+        private int version;
+        private int invalidations;
+        /**
+         * Set once the index was dropped too often, the model being scanned instead.
+         */
+        private boolean scanning;
+
+        private IndexedSearch(JTable table, Map<String, String> values) {
+            super(table, values);
+        }
+
+        @Override
+        public void run() {
+            if (scanning) {
+                super.run();
+                return;
+            }
+            if (model != table.getModel()) start();
+            ColumnIndex current = getIndex(model, columns[0]);
+            if (current != index) {
+                if (index != null && ++invalidations > MAX_INVALIDATIONS) {
+                    // The model changes faster than it can be indexed
+                    scanning = true;
+                    next = 0;
+                    super.run();
+                    return;
+                }
+                index = current;
+                version = -1;
+            }
+            if (!index.isComplete(model)) {
+                index.build(model);
+                return;
+            }
+            if (version != index.version) {
+                // The index changed, the candidates may have moved
+                version = index.version;
+                next = 0;
+            }
+            List<Integer> rows = index.getRows(texts[0]);
+            int end = Math.min(rows.size(), next + CHUNK_SIZE);
+            for (; next < end; next++) {
+                int row = rows.get(next);
+                if (matches(row, 0) && found(row)) return;
+            }
+            if (next >= rows.size()) finish();
+        }
+
+        private static ColumnIndex getIndex(TableModel model, int column) {
+            ModelIndex modelIndex = indexes.get(model);
+            if (modelIndex == null) {
+                modelIndex = new ModelIndex();
+                model.addTableModelListener(modelIndex);
+                indexes.put(model, modelIndex);
+            }
+            ColumnIndex index = modelIndex.columns.get(column);
+            if (index == null) {
+                index = new ColumnIndex(column);
+                modelIndex.columns.put(column, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * The column indexes of a model, updated by the model events.
+     */
+    private static class ModelIndex implements TableModelListener {
+        private final Map<Integer, ColumnIndex> columns = new HashMap<Integer, ColumnIndex>();
+
+        @Override
+        public void tableChanged(TableModelEvent e) {
+            int first = e.getFirstRow();
+            int last = e.getLastRow();
+            if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+                // The structure or all data changed
+                columns.clear();
+                return;
+            }
+            TableModel model = (TableModel) e.getSource();
+            for (Iterator<ColumnIndex> it = columns.values().iterator(); it.hasNext();) {
+                ColumnIndex index = it.next();
+                if (first >= index.built) continue;
+                if (e.getType() == TableModelEvent.UPDATE) {
+                    if (e.getColumn() == TableModelEvent.ALL_COLUMNS || e.getColumn() == index.column) {
+                        index.update(model, first, Math.min(last, index.built - 1));
+                    }
+                } else if (e.getType() == TableModelEvent.DELETE && last >= index.built - 1) {
+                    index.truncate(first);
+                } else {
+                    // The indexed rows moved
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The model rows of each text in a column, in ascending order.
+     */
+    private static class ColumnIndex {
+        private final int column;
+        private final Map<String, Bucket> buckets = new HashMap<String, Bucket>();
+        /**
+         * The bucket of each indexed row.
+         */
+        private final List<Bucket> rowBuckets = new ArrayList<Bucket>();
+        /**
+         * The number of rows already indexed.
+         */
+        private int built;
+        /**
+         * Incremented whenever indexed rows change.
+         */
+        private int version;
+
+        private ColumnIndex(int column) {
+            this.column = column;
+        }
+
+        private boolean isComplete(TableModel model) {
+            return built == model.getRowCount();
+        }
+
+        /**
+         * Indexes the next chunk of rows.
+         */
+        private void build(TableModel model) {
+            if (built > model.getRowCount()) {
+                // Rows were removed without an event
+                truncate(0);
+            }
+            int end = Math.min(model.getRowCount(), built + CHUNK_SIZE);
+            for (; built < end; built++) {
+                Bucket bucket = getBucket(getText(model, built, column));
+                bucket.rows.add(built);
+                rowBuckets.add(bucket);
+            }
+        }
+
+        /**
+         * Indexes the new texts of the given indexed rows.
+         */
+        private void update(TableModel model, int first, int last) {
+            for (int row = first; row <= last; row++) {
+                String text = getText(model, row, column);
+                Bucket old = rowBuckets.get(row);
+                if (old.text.equals(text)) continue;
+                remove(old, row);
+                Bucket bucket = getBucket(text);
+                bucket.rows.add(-Collections.binarySearch(bucket.rows, row) - 1, row);
+                rowBuckets.set(row, bucket);
+                version++;
+            }
+        }
+
+        /**
+         * Removes the rows starting at the given one from the index.
+         */
+        private void truncate(int first) {
+            for (int row = built - 1; row >= first; row--) {
+                remove(rowBuckets.remove(row), row);
+            }
+            built = first;
+            version++;
+        }
+
+        private void remove(Bucket bucket, int row) {
+            bucket.rows.remove(Collections.binarySearch(bucket.rows, row));
+            if (bucket.rows.isEmpty()) buckets.remove(bucket.text);
+        }
+
+        private Bucket getBucket(String text) {
+            Bucket bucket = buckets.get(text);
+            if (bucket == null) {
+                bucket = new Bucket(text);
+                buckets.put(text, bucket);
+            }
+            return bucket;
+        }
+
+        private List<Integer> getRows(String text) {
+            Bucket bucket = buckets.get(text);
+            return bucket == null ? Collections.<Integer>emptyList() : bucket.rows;
+        }
+    }
+
+    /**
+     * The rows with some text.
+     */
+    private static class Bucket {
+        private final String text;
+        private final List<Integer> rows = new ArrayList<Integer>(1);
+
+        private Bucket(String text) {
+            this.text = text;
+        }
+    }
+}
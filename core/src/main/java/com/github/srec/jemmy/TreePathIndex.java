@@ -0,0 +1,187 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import javax.swing.*;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Resolves tree nodes given either by a path of labels separated by {@link #SEPARATOR}, such as "Root>Accounts>EMEA",
+ * or by a single label. Paths are resolved by descending only along them, expanding the nodes on the way so that lazily
+ * loaded children get created, while single labels are searched in the whole model. The root label may be omitted from
+ * paths, and a path which cannot be resolved is searched as a single label, as labels may contain the separator.<br><br>
+ *
+ * The nodes found are memoized per tree, and forgotten when the model fires an event for them or one of their
+ * ancestors. All methods must be called in the EDT.
+ *
+ * @author Victor Tatai
+ */
+final class TreePathIndex implements TreeModelListener, PropertyChangeListener {
+    public static final String SEPARATOR = ">";
+    private static final Map<JTree, TreePathIndex> indexes = new WeakHashMap<JTree, TreePathIndex>();
+
+    private TreeModel model;
+    /**
+     * The paths resolved so far, keyed by their labels joined by the separator.
+     */
+    private final Map<String, TreePath> paths = new HashMap<String, TreePath>();
+    /**
+     * The nodes found by single labels.
+     */
+    private final Map<String, TreePath> labels = new HashMap<String, TreePath>();
+
+    private TreePathIndex(TreeModel model) {
+        listen(model);
+    }
+
+    /**
+     * Finds a node.
+     *
+     * @param tree The tree
+     * @param node The node path or label
+     * @return The node path, null if it was not found
+     */
+    static TreePath find(JTree tree, String node) {
+        TreePathIndex index = indexes.get(tree);
+        if (index == null) {
+            index = new TreePathIndex(tree.getModel());
+            tree.addPropertyChangeListener(JTree.TREE_MODEL_PROPERTY, index);
+            indexes.put(tree, index);
+        }
+        if (index.model == null) return null;
+        TreePath path = node.contains(SEPARATOR) ? index.findPath(tree, node.split(SEPARATOR)) : null;
+        return path != null ? path : index.findLabel(node);
+    }
+
+    private void listen(TreeModel model) {
+        this.model = model;
+        if (model != null) model.addTreeModelListener(this);
+    }
+
+    private TreePath findPath(JTree tree, String[] labels) {
+        Object root = model.getRoot();
+        if (root == null) return null;
+        TreePath path = new TreePath(root);
+        int first = root.toString().equals(labels[0].trim()) ? 1 : 0;
+        String key = first == 1 ? root.toString() : "";
+        for (int i = first; i < labels.length; i++) {
+            String label = labels[i].trim();
+            key = key + SEPARATOR + label;
+            TreePath child = paths.get(key);
+            if (child == null) {
+                child = findChild(tree, path, label);
+                if (child == null) return null;
+                paths.put(key, child);
+            }
+            path = child;
+        }
+        return path;
+    }
+
+    /**
+     * Finds a child by label, expanding the parent if the child is not there yet.
+     */
+    private TreePath findChild(JTree tree, TreePath parent, String label) {
+        TreePath child = findChild(parent, label);
+        if (child == null && !model.isLeaf(parent.getLastPathComponent()) && !tree.isExpanded(parent)) {
+            tree.expandPath(parent);
+            child = findChild(parent, label);
+        }
+        return child;
+    }
+
+    private TreePath findChild(TreePath parent, String label) {
+        Object node = parent.getLastPathComponent();
+        int count = model.getChildCount(node);
+        for (int i = 0; i < count; i++) {
+            Object child = model.getChild(node, i);
+            if (label.equals(child.toString())) return parent.pathByAddingChild(child);
+        }
+        return null;
+    }
+
+    private TreePath findLabel(String label) {
+        TreePath path = labels.get(label);
+        if (path == null && model.getRoot() != null) {
+            path = findLabel(new TreePath(model.getRoot()), label);
+            if (path != null) labels.put(label, path);
+        }
+        return path;
+    }
+
+    private TreePath findLabel(TreePath parent, String label) {
+        Object node = parent.getLastPathComponent();
+        if (label.equals(node.toString())) return parent;
+        int count = model.getChildCount(node);
+        for (int i = 0; i < count; i++) {
+            TreePath result = findLabel(parent.pathByAddingChild(model.getChild(node, i)), label);
+            if (result != null) return result;
+        }
+        return null;
+    }
+
+    /**
+     * Forgets the paths under the given one, or all of them if it is null. Label lookups are always forgotten as the
+     * first node with a label may change.
+     */
+    private void forget(TreePath changed) {
+        labels.clear();
+        if (changed == null) {
+            paths.clear();
+            return;
+        }
+        for (Iterator<TreePath> it = paths.values().iterator(); it.hasNext();) {
+            TreePath path = it.next();
+            if (changed.isDescendant(path)) it.remove();
+        }
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        // The labels of the children may have changed
+        forget(e.getTreePath());
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        // Existing paths are still valid
+        labels.clear();
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        forget(e.getTreePath());
+    }
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        forget(e.getTreePath());
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (model != null) model.removeTreeModelListener(this);
+        forget(null);
+        listen((TreeModel) evt.getNewValue());
+    }
+}
@@ -17,24 +17,32 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 
 import com.github.srec.command.ExecutionContext;
 import com.github.srec.command.ExecutionContextFactory;
+import com.github.srec.command.ReadOnlyCommand;
 import com.github.srec.command.TestCase;
 import com.github.srec.command.TestSuite;
 import com.github.srec.command.base.Command;
 import com.github.srec.command.base.Command.CommandFlow;
+import com.github.srec.command.base.LiteralCommand;
+import com.github.srec.command.base.ValueCommand;
 import com.github.srec.command.exception.CommandExecutionException;
+import com.github.srec.command.method.MethodCallCommand;
 import com.github.srec.command.parser.ParseException;
 import com.github.srec.command.parser.Parser;
 import com.github.srec.command.parser.ParserFactory;
+import com.github.srec.command.value.StringValue;
+import com.github.srec.command.value.Value;
 import com.github.srec.jemmy.ComponentMap;
 import com.github.srec.jemmy.JemmyDSL;
 import com.github.srec.rec.DefaultScreenShot;
 import com.github.srec.rec.ScreenShot;
+import com.github.srec.util.ComponentIndex;
 import com.github.srec.util.PropertiesReader;
 
 /**
@@ -46,6 +54,31 @@ public class Player {
     private static final Logger log =  Logger.getLogger(Player.class);
     private final List<PlayerError> errors = new ArrayList<PlayerError>();
     private long commandInterval = 50;
+    /**
+     * The default sync mode, used for suites which do not define their own.
+     */
+    private SyncMode syncMode = SyncMode.INTERVAL;
+    /**
+     * Time in ms the event queue must stay empty to be considered idle when running in {@link SyncMode#IDLE}.
+     */
+    private long idleQuietTime = 20;
+    /**
+     * Maximum time in ms to wait for the event queue to become idle when running in {@link SyncMode#IDLE}.
+     */
+    private long idleTimeout = 5000;
+    /**
+     * The durations of the steps in previous runs, used to derive their timeouts. Null if disabled.
+     */
+    private TimeoutHistory timeoutHistory;
+    /**
+     * If consecutive read-only commands should be tried together in a single EDT task.
+     */
+    private boolean fuseReadOnly = true;
+    /**
+     * The timeout limit in ms while trying read-only commands together, so that a check which does not pass at once
+     * fails fast instead of waiting in the EDT.
+     */
+    private static final long FUSED_TIMEOUT_LIMIT = 1;
     private Parser parser;
 
     /**
@@ -71,14 +104,44 @@ public class Player {
 
     public Player init(boolean failFast) {
         JemmyDSL.init();
-        String intervalString = PropertiesReader.getProperties()
-            .getProperty(PropertiesReader.PLAYER_COMMAND_INTERVAL);
+        Properties props = PropertiesReader.getProperties();
+        String intervalString = props.getProperty(PropertiesReader.PLAYER_COMMAND_INTERVAL);
         if (!isBlank(intervalString)) {
             commandInterval = Integer.parseInt(intervalString);
         }
+        SyncMode mode = SyncMode.parse(props.getProperty(PropertiesReader.PLAYER_SYNC_MODE));
+        if (mode != null) {
+            syncMode = mode;
+        }
+        String idleTimeoutString = props.getProperty(PropertiesReader.PLAYER_IDLE_TIMEOUT);
+        if (!isBlank(idleTimeoutString)) {
+            idleTimeout = Integer.parseInt(idleTimeoutString);
+        }
+        String fuseString = props.getProperty(PropertiesReader.FUSE_READ_ONLY);
+        if (!isBlank(fuseString)) {
+            fuseReadOnly = Boolean.parseBoolean(fuseString.trim());
+        }
+        ComponentIndex.Mode indexMode = ComponentIndex.Mode.parse(props.getProperty(PropertiesReader.COMPONENT_INDEX));
+        if (indexMode != null) {
+            ComponentIndex.setMode(indexMode);
+        }
 
         // Overrides properties file if using the command line param
         commandInterval = getIntProperty("com.github.srec.commandInterval", commandInterval);
+        idleTimeout = getIntProperty("com.github.srec.idleTimeout", idleTimeout);
+        String modeString = System.getProperty("com.github.srec.syncMode");
+        if (!isBlank(modeString) && !modeString.startsWith("${")) {
+            syncMode = SyncMode.parse(modeString);
+        }
+        String indexModeString = System.getProperty("com.github.srec.componentIndex");
+        if (!isBlank(indexModeString) && !indexModeString.startsWith("${")) {
+            ComponentIndex.setMode(ComponentIndex.Mode.parse(indexModeString));
+        }
+        String fuseProperty = System.getProperty("com.github.srec.fuseReadOnly");
+        if (!isBlank(fuseProperty) && !fuseProperty.startsWith("${")) {
+            fuseReadOnly = Boolean.parseBoolean(fuseProperty.trim());
+        }
+        initTimeoutHistory(props);
 
         parser = ParserFactory.create();
         this.failFast = failFast;
@@ -89,6 +152,22 @@ public class Player {
         return init(true);
     }
 
+    private void initTimeoutHistory(Properties props) {
+        String historyFile = System.getProperty("com.github.srec.timeoutHistory");
+        if (isBlank(historyFile) || historyFile.startsWith("${")) {
+            historyFile = props.getProperty(PropertiesReader.TIMEOUT_HISTORY);
+        }
+        if (isBlank(historyFile)) return;
+        String marginString = props.getProperty(PropertiesReader.TIMEOUT_HISTORY_MARGIN);
+        long margin = isBlank(marginString) ? 5000 : Long.parseLong(marginString.trim());
+        margin = getIntProperty("com.github.srec.timeoutHistoryMargin", margin);
+        try {
+            timeoutHistory = new TimeoutHistory(new File(historyFile.trim()), margin);
+        } catch (IOException e) {
+            log.warn("Could not read timeout history " + historyFile + ", adaptive timeouts are disabled", e);
+        }
+    }
+
 
     public static long getIntProperty(String key, long defaultValue){
         String s = System.getProperty(key);
@@ -198,6 +277,14 @@ public class Player {
                 appStarted = false;
             }
         }
+        if (timeoutHistory != null) {
+            try {
+                timeoutHistory.save();
+            } catch (IOException e) {
+                // The history only tunes the next runs, this run must not fail because of it
+                log.warn("Could not save timeout history, it is not updated", e);
+            }
+        }
         return this;
     }
 
@@ -208,10 +295,20 @@ public class Player {
     	ComponentMap formerComponentMap = JemmyDSL.getComponentMap();
         JemmyDSL.setComponentMap(new ComponentMapSymbolsAdapter(context.getSymbols()));
         try {
-            for (Command command : context.getCommands()) {
+            List<Command> commands = context.getCommands();
+            for (int i = 0; i < commands.size(); i++) {
+                if (fuseReadOnly) {
+                    int fused = runFused(commands, i, context);
+                    if (fused > 0) {
+                        synchronize(context);
+                        i += fused;
+                        if (i == commands.size()) break;
+                    }
+                }
+                Command command = commands.get(i);
                 log.debug("Running line: " + getLine(command) + ", command: " + command);
                 try {
-                    Command.CommandFlow flow = command.run(context);
+                    Command.CommandFlow flow = run(command, context);
                     if (flow == Command.CommandFlow.NEXT) {}
                     else if (flow == Command.CommandFlow.EXIT) {
 						return Command.CommandFlow.EXIT;
@@ -227,11 +324,7 @@ public class Player {
                     handleError(context.getTestSuite(), context.getTestCase(), command, e1);
                     break;
                 }
-                try {
-                    Thread.sleep(commandInterval);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+                synchronize(context);
             }
             return Command.CommandFlow.NEXT;
         } finally {
@@ -239,6 +332,124 @@ public class Player {
         }
     }
 
+    /**
+     * Tries a run of consecutive read-only commands together in a single EDT task, with all the Jemmy waits limited,
+     * component lookups included, so that each check is done only once: waiting in the EDT could never succeed since
+     * the application cannot change while the EDT is busy. This saves the EDT round trips and the synchronization
+     * between them when the application is already in the expected state, which is usually the case for assertions.
+     * Trying stops at the first command which fails, which is then run normally like the rest of the run, so waits and
+     * errors are handled as if the commands had never been tried together. The durations of the commands run this way
+     * are not recorded in the timeout history as they do not include any wait.
+     *
+     * @param commands The commands
+     * @param start The index of the first command of the run
+     * @param context The EC
+     * @return The number of commands which passed, 0 if there is no run to try
+     */
+    private int runFused(List<Command> commands, int start, final ExecutionContext context) {
+        int end = start;
+        while (end < commands.size() && isFusable(commands.get(end), context)) {
+            end++;
+        }
+        if (end - start < 2) return 0;
+        final List<Command> run = commands.subList(start, end);
+        final int[] passed = new int[1];
+        try {
+            JemmyDSL.invokeWithTimeoutLimit(FUSED_TIMEOUT_LIMIT, new Runnable() {
+                @Override
+                public void run() {
+                    for (Command command : run) {
+                        log.debug("Trying line: " + getLine(command) + ", command: " + command);
+                        try {
+                            command.run(context);
+                        } catch (RuntimeException e) {
+                            log.debug("Line " + getLine(command) + " did not pass at once, running it normally", e);
+                            return;
+                        } catch (AssertionError e) {
+                            log.debug("Line " + getLine(command) + " did not pass at once, running it normally", e);
+                            return;
+                        }
+                        passed[0]++;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("Read-only commands failed in the EDT, running them normally", e);
+        }
+        return passed[0];
+    }
+
+    /**
+     * Checks if a command may be tried by {@link #runFused(List, int, ExecutionContext)}. Only read-only commands whose
+     * parameters are plain literals are, since a command which does not pass at once is run again, which would
+     * evaluate any expression or interpolation in its parameters twice.
+     */
+    private boolean isFusable(Command command, ExecutionContext context) {
+        if (!(command instanceof MethodCallCommand)
+                || !(context.findSymbol(command.getName()) instanceof ReadOnlyCommand)) return false;
+        for (ValueCommand parameter : ((MethodCallCommand) command).getParameters().values()) {
+            if (!(parameter instanceof LiteralCommand)) return false;
+            Value value = parameter.getValue(context);
+            if (value instanceof StringValue && String.valueOf(value.get()).indexOf('$') != -1) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs a command, limiting its timeouts according to the duration of the same step in previous runs.
+     *
+     * @param command The command
+     * @param context The EC
+     * @return The command flow
+     */
+    private Command.CommandFlow run(Command command, ExecutionContext context) {
+        if (timeoutHistory == null || command.getLocation() == null) return command.run(context);
+        long previousLimit = JemmyDSL.getTimeoutLimit();
+        long limit = timeoutHistory.getTimeout(command.getLocation());
+        if (limit > 0) JemmyDSL.setTimeoutLimit(limit);
+        int errorCount = errors.size();
+        long start = System.currentTimeMillis();
+        try {
+            Command.CommandFlow flow = command.run(context);
+            // Nested steps (such as in methods) handle their own errors, a step which failed is not recorded
+            if (errors.size() == errorCount) {
+                timeoutHistory.record(command.getLocation(), System.currentTimeMillis() - start);
+            }
+            return flow;
+        } finally {
+            JemmyDSL.setTimeoutLimit(previousLimit);
+        }
+    }
+
+    /**
+     * Waits for the application under test to settle down after a command, according to the sync mode of the suite
+     * being played.
+     *
+     * @param context The EC
+     */
+    private void synchronize(ExecutionContext context) {
+        if (getSyncMode(context.getTestSuite()) == SyncMode.IDLE) {
+            JemmyDSL.waitIdle(idleQuietTime, idleTimeout);
+            return;
+        }
+        try {
+            Thread.sleep(commandInterval);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the sync mode which should be used for the given suite.
+     *
+     * @param testSuite The suite, may be null
+     * @return The suite sync mode, or the player default if the suite does not define one
+     */
+    public SyncMode getSyncMode(TestSuite testSuite) {
+        if (testSuite == null || testSuite.getSyncMode() == null) return syncMode;
+        return testSuite.getSyncMode();
+    }
+
     private String getLine(Command command) {
         if (command.getLocation() == null) {
 			return "<NO LINE>";
@@ -278,6 +489,22 @@ public class Player {
         this.commandInterval = commandInterval;
     }
 
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    public void setSyncMode(SyncMode syncMode) {
+        this.syncMode = syncMode;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
     /**
      * Prints all errors in stderr.
      */
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.play;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * Defines how the player synchronizes with the application under test between two commands.
+ *
+ * @author Victor Tatai
+ */
+public enum SyncMode {
+    /**
+     * Sleeps for a fixed command interval after each command.
+     */
+    INTERVAL,
+    /**
+     * Waits until the AWT event queue has been idle for a short period, bounded by the idle timeout.
+     */
+    IDLE;
+
+    /**
+     * Parses a sync mode name, case insensitive.
+     *
+     * @param name The name, may be blank
+     * @return The sync mode, null if name is blank
+     */
+    public static SyncMode parse(String name) {
+        if (isBlank(name)) return null;
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new PlayerException("Invalid sync mode: " + name);
+        }
+    }
+}
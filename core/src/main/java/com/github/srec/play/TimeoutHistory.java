@@ -0,0 +1,157 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.play;
+
+import com.github.srec.Location;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The durations of the script steps in previous runs, used to derive a timeout for each step. The history is kept per
+ * script location in a properties file, with the most recent durations of each step.<br><br>
+ *
+ * The timeout of a step is a high percentile of its past durations plus a safety margin, so that a step which is
+ * broken fails once this timeout expires instead of waiting for the full Jemmy timeouts. Steps without enough history
+ * have no timeout.
+ *
+ * @author Victor Tatai
+ */
+public class TimeoutHistory {
+    private static final Logger log = Logger.getLogger(TimeoutHistory.class);
+    /**
+     * Number of durations kept per step.
+     */
+    static final int MAX_SAMPLES = 20;
+    /**
+     * Number of durations needed before a timeout is derived.
+     */
+    static final int MIN_SAMPLES = 5;
+    static final int PERCENTILE = 95;
+
+    private final File file;
+    private final long margin;
+    private final Map<String, LinkedList<Long>> durations = new HashMap<String, LinkedList<Long>>();
+    private boolean modified;
+
+    /**
+     * Creates the history, loading the file if it exists.
+     *
+     * @param file The history file
+     * @param margin The margin in ms added to the percentile of the durations
+     * @throws IOException in case the file exists but cannot be read
+     */
+    public TimeoutHistory(File file, long margin) throws IOException {
+        this.file = file;
+        this.margin = margin;
+        if (file.exists()) load();
+    }
+
+    private void load() throws IOException {
+        Properties props = new Properties();
+        InputStream is = new FileInputStream(file);
+        try {
+            props.load(is);
+        } finally {
+            is.close();
+        }
+        for (String key : props.stringPropertyNames()) {
+            LinkedList<Long> list = new LinkedList<Long>();
+            for (String value : props.getProperty(key).split(",")) {
+                try {
+                    list.add(Long.parseLong(value.trim()));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid duration " + value + " for " + key + " in " + file);
+                }
+            }
+            durations.put(key, list);
+        }
+    }
+
+    /**
+     * Writes the history back to its file, if anything was recorded.
+     *
+     * @throws IOException in case the file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (!modified) return;
+        Properties props = new Properties();
+        for (Map.Entry<String, LinkedList<Long>> entry : durations.entrySet()) {
+            StringBuilder strb = new StringBuilder();
+            for (Long duration : entry.getValue()) {
+                if (strb.length() > 0) strb.append(',');
+                strb.append(duration);
+            }
+            props.setProperty(entry.getKey(), strb.toString());
+        }
+        OutputStream os = new FileOutputStream(file);
+        try {
+            props.store(os, "srec step durations in ms");
+        } finally {
+            os.close();
+        }
+        modified = false;
+    }
+
+    /**
+     * Records the duration of a successful run of a step.
+     *
+     * @param location The step location
+     * @param duration The duration in ms
+     */
+    public synchronized void record(Location location, long duration) {
+        String key = getKey(location);
+        LinkedList<Long> list = durations.get(key);
+        if (list == null) {
+            list = new LinkedList<Long>();
+            durations.put(key, list);
+        }
+        list.add(duration);
+        if (list.size() > MAX_SAMPLES) list.removeFirst();
+        modified = true;
+    }
+
+    /**
+     * Gets the timeout of a step.
+     *
+     * @param location The step location
+     * @return The timeout in ms, 0 if there is not enough history for the step
+     */
+    public synchronized long getTimeout(Location location) {
+        LinkedList<Long> list = durations.get(getKey(location));
+        if (list == null || list.size() < MIN_SAMPLES) return 0;
+        long[] sorted = new long[list.size()];
+        int i = 0;
+        for (Long duration : list) {
+            sorted[i++] = duration;
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(PERCENTILE / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] + margin;
+    }
+
+    private String getKey(Location location) {
+        return location.getFileName() + ":" + location.getLineNumber();
+    }
+}
@@ -33,6 +33,7 @@ import javax.swing.JInternalFrame;
 import org.apache.log4j.Logger;
 
 import com.github.srec.util.AWTTreeScanner;
+import com.github.srec.util.ActiveWindowTracker;
 import com.github.srec.util.PropertiesReader;
 import com.github.srec.util.ScannerMatcher;
 
@@ -91,16 +92,9 @@ public class DefaultScreenShot implements ScreenShot {
     }
 
     private Window findActiveWindow() {
-        Window[] ws = Window.getOwnerlessWindows();
-        if (ws.length == 0) {
-			return null;
-		}
-        for (Window w : ws) {
-            if (w.isActive()) {
-                return w;
-            }
-        }
-        return null;
+        Window w = ActiveWindowTracker.getInstance().getActiveWindow();
+        // Only top level windows are captured
+        return w != null && w.getOwner() == null ? w : null;
     }
 
     private Rectangle getScreenSize(JInternalFrame iframe) {
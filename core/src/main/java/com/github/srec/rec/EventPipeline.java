@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.rec;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands events over from a single producer thread, the EDT, to a background thread which handles them. The events are
+ * kept in a fixed size ring buffer in which each side only writes its own index, so neither side takes a lock, and the
+ * consumer parks while the buffer is empty. Events are never dropped: if the consumer falls behind and the buffer
+ * fills up, the producer waits for room.
+ *
+ * @author Victor Tatai
+ */
+final class EventPipeline implements Runnable {
+    private static final Logger logger = Logger.getLogger(EventPipeline.class);
+    /**
+     * The buffer size, a power of two.
+     */
+    static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    /**
+     * How long the producer parks at a time while the buffer is full.
+     */
+    private static final long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Object[] buffer = new Object[CAPACITY];
+    /**
+     * The index of the next event to handle, only written by the consumer. It is only advanced once the event has been
+     * handled, so that {@link #flush()} can rely on it.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * The index of the next free slot, only written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private final Handler handler;
+    private final Thread thread;
+    private volatile boolean parked;
+    private volatile boolean running = true;
+
+    /**
+     * Handles the events in the background thread.
+     */
+    interface Handler {
+        void handle(Object event);
+    }
+
+    EventPipeline(Handler handler, String threadName) {
+        this.handler = handler;
+        thread = new Thread(this, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds an event, must only be called by the producer thread.
+     *
+     * @param event The event
+     * @throws IllegalStateException in case the buffer is full and the background thread has stopped, so that events
+     * which were not handled are never overwritten
+     */
+    void offer(Object event) {
+        long t = tail.get();
+        while (t - head.get() == CAPACITY) {
+            if (!thread.isAlive()) throw new IllegalStateException("Event pipeline " + thread.getName() + " stopped");
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+        buffer[(int) t & MASK] = event;
+        tail.set(t + 1);
+        if (parked) LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            long h = head.get();
+            if (h == tail.get()) {
+                if (!running) return;
+                parked = true;
+                // Checked again after setting parked, an event added meanwhile unparks this thread
+                if (h == tail.get() && running) LockSupport.park(this);
+                parked = false;
+                continue;
+            }
+            int slot = (int) h & MASK;
+            Object event = buffer[slot];
+            buffer[slot] = null;
+            try {
+                handler.handle(event);
+            } catch (Throwable e) {
+                // Keeps draining, the producer would otherwise wait for room forever
+                logger.error("Error handling recorded event " + event, e);
+            }
+            head.set(h + 1);
+        }
+    }
+
+    /**
+     * Waits until all the events added so far have been handled. Must not be called by the consumer thread.
+     */
+    void flush() {
+        long target = tail.get();
+        while (head.get() < target && thread.isAlive()) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        if (head.get() < target) {
+            logger.error((target - head.get()) + " recorded events were added after the event pipeline stopped");
+        }
+    }
+
+    /**
+     * Handles the remaining events and stops the background thread.
+     */
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -11,5 +11,6 @@ public interface EventRecorder {
     void init();
     void shutdown();
     void record(MethodCallEventCommand event);
+    void record(PendingEvent event);
     MethodCallEventCommand getLastEvent();
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.rec;
+
+import com.github.srec.command.method.MethodCallEventCommand;
+
+/**
+ * An event captured in the EDT whose command is only built later in the recorder thread, so that the work done in the
+ * EDT is kept to reading the component state which can only be read there.
+ *
+ * @author Victor Tatai
+ */
+public interface PendingEvent {
+    /**
+     * Builds the event command, called in the recorder thread.
+     *
+     * @return The command, null if the event should not be recorded
+     */
+    MethodCallEventCommand resolve();
+}
@@ -10,9 +10,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * The recorder used to record the user's interactions with the Swing application.
+ * The recorder used to record the user's interactions with the Swing application. The component recorders record the
+ * events in the EDT, which only hands them over to a background thread (see {@link EventPipeline}), where they are
+ * filtered, collapsed and passed to the callback. The callback is thus never called in the EDT.
  *
  * @author Victor Tatai
  */
@@ -24,9 +27,16 @@ public class Recorder implements EventRecorder {
     /**
      * The list of ignored containers, such as the recording frame itself.
      */
-    private List<Container> ignoredContainers = new ArrayList<Container>();
-    private boolean recording;
-    private MethodCallEventCommand lastEvent;
+    private List<Container> ignoredContainers = new CopyOnWriteArrayList<Container>();
+    private volatile boolean recording;
+    /**
+     * Only accessed in the recorder thread once the recorder is initialized.
+     */
+    private volatile MethodCallEventCommand lastEvent;
+    /**
+     * Null while the recorder is not initialized, in which case events are handled in the calling thread.
+     */
+    private EventPipeline pipeline;
 
     public Recorder(RecorderEventCallback callback) {
         eventCallback = callback;
@@ -45,6 +55,12 @@ public class Recorder implements EventRecorder {
     }
 
     public void init() {
+        pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                process(event);
+            }
+        }, "srec-recorder");
         for (ComponentRecorder recorder : componentRecorders) {
             recorder.register();
         }
@@ -54,10 +70,42 @@ public class Recorder implements EventRecorder {
         for (ComponentRecorder recorder : componentRecorders) {
             recorder.unregister();
         }
+        if (pipeline != null) {
+            pipeline.shutdown();
+            pipeline = null;
+        }
     }
 
     public void record(MethodCallEventCommand event) {
-        if (!recording || isIgnored(event.getComponent()) || isOnJavaConsole(event.getComponent())) return;
+        enqueue(event);
+    }
+
+    public void record(PendingEvent event) {
+        enqueue(event);
+    }
+
+    private void enqueue(Object event) {
+        if (!recording) return;
+        EventPipeline current = pipeline;
+        if (current == null) {
+            process(event);
+        } else {
+            current.offer(event);
+        }
+    }
+
+    /**
+     * Waits until the events recorded so far are handled.
+     */
+    public void flush() {
+        EventPipeline current = pipeline;
+        if (current != null) current.flush();
+    }
+
+    private void process(Object recorded) {
+        MethodCallEventCommand event = recorded instanceof PendingEvent ? ((PendingEvent) recorded).resolve()
+                : (MethodCallEventCommand) recorded;
+        if (event == null || isIgnored(event.getComponent()) || isOnJavaConsole(event.getComponent())) return;
         if (StringUtils.isBlank(event.getComponentLocator())) {
             logger.warn("Component has no way of being located (no name or label): " + event.getComponent());
         }
@@ -54,6 +54,7 @@ public class SimpleXmlRecorder implements RecorderEventCallback {
                 if (keyEvent.getKeyCode() == KeyEvent.VK_D) {
                     if (recorder.isRecording()) {
                         recorder.setRecording(false);
+                        recorder.flush();
                         writeLastEvent();
                     } else {
                         recorder.setRecording(true);
@@ -101,7 +102,7 @@ public class SimpleXmlRecorder implements RecorderEventCallback {
         writer.close();
     }
 
-    private void writeLastEvent() {
+    private synchronized void writeLastEvent() {
         if (lastEvent != null) {
             writer.println(serialize(lastEvent));
             lastEvent = null;
@@ -110,7 +111,7 @@ public class SimpleXmlRecorder implements RecorderEventCallback {
     }
 
     @Override
-    public void addEvent(MethodCallEventCommand event) {
+    public synchronized void addEvent(MethodCallEventCommand event) {
         System.out.println("Event: " + event);
         if (lastEvent != null) {
             writer.println(serialize(lastEvent));
@@ -131,7 +132,7 @@ public class SimpleXmlRecorder implements RecorderEventCallback {
     }
 
     @Override
-    public void replaceLastEvent(MethodCallEventCommand event) {
+    public synchronized void replaceLastEvent(MethodCallEventCommand event) {
         lastEvent = event;
     }
 
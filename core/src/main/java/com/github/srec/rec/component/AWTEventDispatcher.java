@@ -0,0 +1,163 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.rec.component;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The single AWT event listener of the component recorders. Instead of every recorder listening to all the events of
+ * its kind and checking their source itself, the recorders are registered here with the events and the component
+ * class they are interested in, and each event is only passed to the matching recorders. The recorders matching a
+ * given concrete component class are looked up once and cached, the cache being dropped whenever a recorder is added or
+ * removed.<br><br>
+ *
+ * Only hierarchy, key, mouse, window, focus, container and component events are routed.
+ *
+ * @author Victor Tatai
+ */
+public final class AWTEventDispatcher implements AWTEventListener {
+    private static final Route[] NO_ROUTES = new Route[0];
+    private static final AWTEventDispatcher INSTANCE = new AWTEventDispatcher();
+
+    private volatile Route[] routes = NO_ROUTES;
+    private volatile Map<Class<?>, Route[]> routesByClass = new ConcurrentHashMap<Class<?>, Route[]>();
+    /**
+     * The event mask this dispatcher is registered with in the toolkit, 0 if it is not registered.
+     */
+    private long installedMask;
+
+    private AWTEventDispatcher() {
+    }
+
+    public static AWTEventDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener The listener
+     * @param eventMask The events the listener is interested in, as in {@link Toolkit#addAWTEventListener}
+     * @param componentClass Only events whose source is an instance of this class are passed to the listener, null
+     * for any source
+     */
+    public synchronized void addListener(AWTEventListener listener, long eventMask, Class<?> componentClass) {
+        Route[] updated = new Route[routes.length + 1];
+        System.arraycopy(routes, 0, updated, 0, routes.length);
+        updated[routes.length] = new Route(listener, eventMask, componentClass);
+        update(updated);
+    }
+
+    /**
+     * Unregisters all the registrations of a listener.
+     *
+     * @param listener The listener
+     */
+    public synchronized void removeListener(AWTEventListener listener) {
+        List<Route> updated = new ArrayList<Route>(routes.length);
+        for (Route route : routes) {
+            if (route.listener != listener) updated.add(route);
+        }
+        update(updated.toArray(new Route[updated.size()]));
+    }
+
+    private void update(Route[] updated) {
+        routes = updated;
+        routesByClass = new ConcurrentHashMap<Class<?>, Route[]>();
+        long mask = 0;
+        for (Route route : updated) {
+            mask |= route.eventMask;
+        }
+        if (mask == installedMask) return;
+        Toolkit toolkit = Toolkit.getDefaultToolkit();
+        if (installedMask != 0) toolkit.removeAWTEventListener(this);
+        if (mask != 0) toolkit.addAWTEventListener(this, mask);
+        installedMask = mask;
+    }
+
+    @Override
+    public void eventDispatched(AWTEvent event) {
+        long mask = maskOf(event);
+        if (mask == 0) return;
+        for (Route route : getRoutes(event.getSource().getClass())) {
+            if ((route.eventMask & mask) != 0) route.listener.eventDispatched(event);
+        }
+    }
+
+    private Route[] getRoutes(Class<?> sourceClass) {
+        Map<Class<?>, Route[]> cache = routesByClass;
+        Route[] matching = cache.get(sourceClass);
+        if (matching == null) {
+            List<Route> list = new ArrayList<Route>();
+            for (Route route : routes) {
+                if (route.componentClass == null || route.componentClass.isAssignableFrom(sourceClass)) list.add(route);
+            }
+            matching = list.isEmpty() ? NO_ROUTES : list.toArray(new Route[list.size()]);
+            cache.put(sourceClass, matching);
+        }
+        return matching;
+    }
+
+    /**
+     * Finds the event mask an event is delivered for.
+     *
+     * @param event The event
+     * @return The mask, 0 if the event is not routed
+     */
+    static long maskOf(AWTEvent event) {
+        int id = event.getID();
+        if (event instanceof HierarchyEvent) {
+            return id == HierarchyEvent.HIERARCHY_CHANGED ? AWTEvent.HIERARCHY_EVENT_MASK
+                    : AWTEvent.HIERARCHY_BOUNDS_EVENT_MASK;
+        } else if (event instanceof KeyEvent) {
+            return AWTEvent.KEY_EVENT_MASK;
+        } else if (event instanceof MouseWheelEvent) {
+            return AWTEvent.MOUSE_WHEEL_EVENT_MASK;
+        } else if (event instanceof MouseEvent) {
+            return id == MouseEvent.MOUSE_MOVED || id == MouseEvent.MOUSE_DRAGGED ? AWTEvent.MOUSE_MOTION_EVENT_MASK
+                    : AWTEvent.MOUSE_EVENT_MASK;
+        } else if (event instanceof WindowEvent) {
+            if (id == WindowEvent.WINDOW_GAINED_FOCUS || id == WindowEvent.WINDOW_LOST_FOCUS) {
+                return AWTEvent.WINDOW_FOCUS_EVENT_MASK;
+            }
+            return id == WindowEvent.WINDOW_STATE_CHANGED ? AWTEvent.WINDOW_STATE_EVENT_MASK
+                    : AWTEvent.WINDOW_EVENT_MASK;
+        } else if (event instanceof FocusEvent) {
+            return AWTEvent.FOCUS_EVENT_MASK;
+        } else if (event instanceof ContainerEvent) {
+            return AWTEvent.CONTAINER_EVENT_MASK;
+        } else if (event instanceof ComponentEvent && id >= ComponentEvent.COMPONENT_FIRST
+                && id <= ComponentEvent.COMPONENT_LAST) {
+            return AWTEvent.COMPONENT_EVENT_MASK;
+        }
+        return 0;
+    }
+
+    private static final class Route {
+        private final AWTEventListener listener;
+        private final long eventMask;
+        private final Class<?> componentClass;
+
+        private Route(AWTEventListener listener, long eventMask, Class<?> componentClass) {
+            this.listener = listener;
+            this.eventMask = eventMask;
+            this.componentClass = componentClass;
+        }
+    }
+}
@@ -25,11 +25,11 @@ public abstract class AbstractCheckRecorder implements ComponentRecorder, AWTEve
     }
 
     public void register() {
-        Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.MOUSE_EVENT_MASK);
+        AWTEventDispatcher.getInstance().addListener(this, AWTEvent.MOUSE_EVENT_MASK, componentClass);
     }
 
     public void unregister() {
-        Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+        AWTEventDispatcher.getInstance().removeListener(this);
     }
 
     public void eventDispatched(AWTEvent event) {
@@ -21,11 +21,11 @@ public abstract class AbstractComponentRecorder implements ComponentRecorder, AW
     }
 
     public void register() {
-        Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.HIERARCHY_EVENT_MASK);
+        AWTEventDispatcher.getInstance().addListener(this, AWTEvent.HIERARCHY_EVENT_MASK, componentClass);
     }
 
     public void unregister() {
-        Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+        AWTEventDispatcher.getInstance().removeListener(this);
     }
 
     public void eventDispatched(AWTEvent event) {
@@ -2,6 +2,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import java.awt.*;
@@ -42,9 +43,14 @@ public class ButtonClickRecorder extends AbstractComponentRecorder implements Ac
     }
 
     public void actionPerformed(ActionEvent e) {
-        AbstractButton button = (AbstractButton) e.getSource();
-        recorder.record(new MethodCallEventCommand("click", button, null,
-                createParameterMap("locator", extractComponentLocator(button))));
+        final AbstractButton button = (AbstractButton) e.getSource();
+        final String locator = extractComponentLocator(button);
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand("click", button, null, createParameterMap("locator", locator));
+            }
+        });
     }
 
     private String extractComponentLocator(AbstractButton button) {
@@ -2,6 +2,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 import com.github.srec.util.Utils;
 
 import javax.swing.text.JTextComponent;
@@ -21,8 +22,15 @@ public class CheckTextRecorder extends AbstractCheckRecorder {
     }
 
     protected void check(Component source) {
-        JTextComponent component = (JTextComponent) source;
-        recorder.record(new MethodCallEventCommand("assert", component, null,
-                createParameterMap("locator", Utils.getLocator(component), "text", component.getText())));
+        final JTextComponent component = (JTextComponent) source;
+        final String locator = Utils.getLocator(component);
+        final String text = component.getText();
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand("assert", component, null,
+                        createParameterMap("locator", locator, "text", text));
+            }
+        });
     }
 }
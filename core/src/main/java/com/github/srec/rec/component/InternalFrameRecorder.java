@@ -15,6 +15,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import javax.swing.event.InternalFrameEvent;
@@ -50,8 +51,7 @@ public class InternalFrameRecorder extends AbstractComponentRecorder implements
     }
 
     public void internalFrameClosing(InternalFrameEvent e) {
-        JInternalFrame iframe = e.getInternalFrame();
-        recorder.record(new MethodCallEventCommand("iframe_close", iframe, null, createParameterMap("title", iframe.getTitle())));
+        record("iframe_close", e.getInternalFrame());
     }
 
     public void internalFrameClosed(InternalFrameEvent e) {
@@ -64,10 +64,19 @@ public class InternalFrameRecorder extends AbstractComponentRecorder implements
     }
 
     public void internalFrameActivated(InternalFrameEvent e) {
-        JInternalFrame iframe = e.getInternalFrame();
-        recorder.record(new MethodCallEventCommand("iframe_activate", iframe, null, createParameterMap("title", iframe.getTitle())));
+        record("iframe_activate", e.getInternalFrame());
     }
 
     public void internalFrameDeactivated(InternalFrameEvent e) {
     }
+
+    private void record(final String method, final JInternalFrame iframe) {
+        final String title = iframe.getTitle();
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand(method, iframe, null, createParameterMap("title", title));
+            }
+        });
+    }
 }
@@ -15,6 +15,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 import com.github.srec.util.Utils;
 
 import javax.swing.*;
@@ -62,8 +63,13 @@ public class MenuNavigationRecorder extends AbstractComponentRecorder implements
         MenuSelectionManager.defaultManager().removeChangeListener(this);
     }
 
-    private void menuSelected(String path) {
-        recorder.record(new MethodCallEventCommand("push_menu", null, null, Utils.createParameterMap("path", path)));
+    private void menuSelected(final String path) {
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand("push_menu", null, null, Utils.createParameterMap("path", path));
+            }
+        });
     }
 
     public void actionPerformed(ActionEvent e) {
@@ -2,6 +2,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 import com.github.srec.rec.common.ComponentDecoder;
 
 import javax.swing.*;
@@ -41,12 +42,19 @@ public class SelectDropDownRecorder extends AbstractComponentRecorder implements
 
     public void itemStateChanged(ItemEvent e) {
         if (e.getStateChange() == ItemEvent.SELECTED) {
-            JComboBox combo = (JComboBox) e.getSource();
+            final JComboBox combo = (JComboBox) e.getSource();
             if (!visibility.isShowingAndHasFocus(combo)) return;
+            // The renderer is shared with the combo so it must be used in the EDT
             ListCellRenderer renderer = combo.getRenderer();
             Component rendererComponent = renderer.getListCellRendererComponent(DUMMY_LIST, combo.getSelectedItem(), combo.getSelectedIndex(), false, false);
-            recorder.record(new MethodCallEventCommand("select", combo, null,
-                    createParameterMap("locator", combo.getName(), "item", decoder.decode(rendererComponent))));
+            final String item = decoder.decode(rendererComponent);
+            recorder.record(new PendingEvent() {
+                @Override
+                public MethodCallEventCommand resolve() {
+                    return new MethodCallEventCommand("select", combo, null,
+                            createParameterMap("locator", combo.getName(), "item", item));
+                }
+            });
         }
     }
 }
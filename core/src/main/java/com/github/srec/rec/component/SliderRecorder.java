@@ -15,6 +15,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
@@ -33,11 +34,17 @@ public class SliderRecorder extends AbstractComponentRecorder implements ChangeL
 
     @Override
     public void stateChanged(ChangeEvent changeEvent) {
-        JSlider source = (JSlider) changeEvent.getSource();
+        final JSlider source = (JSlider) changeEvent.getSource();
         if (source.getValueIsAdjusting()) return;
-        int value = source.getValue();
-        recorder.record(new MethodCallEventCommand("slide", source, null,
-                createParameterMap("locator", source.getName(), "value", value)));
+        final String name = source.getName();
+        final int value = source.getValue();
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand("slide", source, null,
+                        createParameterMap("locator", name, "value", value));
+            }
+        });
     }
 
     void componentShown(Component component) {
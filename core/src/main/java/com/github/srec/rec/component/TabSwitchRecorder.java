@@ -15,6 +15,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
@@ -52,9 +53,15 @@ public class TabSwitchRecorder extends AbstractComponentRecorder implements Chan
         if (!visibility.isShowing(tabbedPane(e))) return;
         final JTabbedPane tab = tabbedPane(e);
         if (tab.getSelectedIndex() != -1) {
-            String title = tab.getTitleAt(tab.getSelectedIndex());
-            recorder.record(new MethodCallEventCommand("tab", tab, null,
-                    createParameterMap("locator", tab.getName(), "text", title)));
+            final String name = tab.getName();
+            final String title = tab.getTitleAt(tab.getSelectedIndex());
+            recorder.record(new PendingEvent() {
+                @Override
+                public MethodCallEventCommand resolve() {
+                    return new MethodCallEventCommand("tab", tab, null,
+                            createParameterMap("locator", name, "text", title));
+                }
+            });
         }
     }
 
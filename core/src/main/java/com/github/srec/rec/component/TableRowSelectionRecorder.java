@@ -16,6 +16,7 @@ package com.github.srec.rec.component;
 import com.github.srec.command.exception.CommandExecutionException;
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
@@ -41,12 +42,16 @@ public class TableRowSelectionRecorder extends AbstractComponentRecorder impleme
     @Override
     public void valueChanged(ListSelectionEvent listSelectionEvent) {
         ListSelectionModel model = (ListSelectionModel) listSelectionEvent.getSource();
-        JTable table = tableMap.get(model);
-        recorder.record(new MethodCallEventCommand("row_select", table, null,
-                createParameterMap(
-                        "table", table.getName(),
-                        "first", listSelectionEvent.getFirstIndex(),
-                        "last", listSelectionEvent.getLastIndex())));
+        final JTable table = tableMap.get(model);
+        final int first = listSelectionEvent.getFirstIndex();
+        final int last = listSelectionEvent.getLastIndex();
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand("row_select", table, null,
+                        createParameterMap("table", table.getName(), "first", first, "last", last));
+            }
+        });
     }
 
     void componentShown(Component component) {
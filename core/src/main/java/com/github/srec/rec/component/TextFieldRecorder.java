@@ -2,6 +2,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 import com.github.srec.util.Utils;
 import org.apache.log4j.Logger;
 
@@ -26,6 +27,32 @@ public class TextFieldRecorder extends AbstractComponentRecorder {
     private static final Logger logger = Logger.getLogger(TextFieldRecorder.class);
     private Map<JTextComponent, DocumentListener> listenerMap = new HashMap<JTextComponent, DocumentListener>();
     private ComponentVisibility visibility;
+    private AWTEventListener keyListener = new AWTEventListener() {
+        @Override
+        public void eventDispatched(AWTEvent event) {
+            if (event.getID() != KeyEvent.KEY_TYPED) return;
+            final JTextField tf = (JTextField) event.getSource();
+            if (!visibility.isShowingAndHasFocus(tf)) return;
+            // Only the text is read here, the rest is done in the recorder thread
+            final char keyChar = ((KeyEvent) event).getKeyChar();
+            final String text = keyChar == '\t' ? null : tf.getText();
+            recorder.record(new PendingEvent() {
+                @Override
+                public MethodCallEventCommand resolve() {
+                    String locator = getLocator(tf);
+                    if (locator == null) return null;
+                    if (text == null) {
+                        logger.debug("TextField event registered: '" + locator + "', tab");
+                        return new MethodCallEventCommand("type_special", tf, null,
+                                createParameterMap("locator", locator, "text", "Tab"));
+                    }
+                    logger.debug("TextField event registered: '" + locator + "', value: '" + text + "'");
+                    return new MethodCallEventCommand("type", tf, null, createParameterMap(
+                            "locator", locator, "text", text + keyChar), true);
+                }
+            });
+        }
+    };
 
     public TextFieldRecorder(EventRecorder recorder, ComponentVisibility visibility) {
         super(recorder, JTextField.class);
@@ -35,28 +62,16 @@ public class TextFieldRecorder extends AbstractComponentRecorder {
     @Override
     public void register() {
         super.register();
-        Toolkit.getDefaultToolkit().addAWTEventListener(new AWTEventListener() {
-            @Override
-            public void eventDispatched(AWTEvent event) {
-                if (event.getID() != KeyEvent.KEY_TYPED) return;
-                if (!(event.getSource() instanceof JTextField)) return;
-                JTextField tf = (JTextField) event.getSource();
-                String locator = getLocator(tf);
-                if (locator == null) return;
-                logger.debug("TextField event registered: '" + locator + "', value: '" + tf.getText() + "'");
-                if (((KeyEvent) event).getKeyChar() == '\t') {
-                    recorder.record(new MethodCallEventCommand("type_special", tf, null,
-                            createParameterMap("locator", locator, "text", "Tab")));
-                } else {
-                    recorder.record(new MethodCallEventCommand("type", tf, null, createParameterMap(
-                            "locator", locator, "text", tf.getText() + ((KeyEvent) event).getKeyChar()), true));
-                }
-            }
-        }, AWTEvent.KEY_EVENT_MASK);
+        AWTEventDispatcher.getInstance().addListener(keyListener, AWTEvent.KEY_EVENT_MASK, JTextField.class);
+    }
+
+    @Override
+    public void unregister() {
+        super.unregister();
+        AWTEventDispatcher.getInstance().removeListener(keyListener);
     }
 
     private String getLocator(JTextField tf) {
-        if (!visibility.isShowingAndHasFocus(tf)) return null;
         String locator = Utils.getLocator(tf);
         if (locator == null) {
             logger.warn("No locator could be determined for text field");
@@ -2,6 +2,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import java.awt.*;
@@ -23,11 +24,11 @@ public class WindowActivationRecorder implements ComponentRecorder, AWTEventList
     }
 
     public void register() {
-        Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.WINDOW_EVENT_MASK);
+        AWTEventDispatcher.getInstance().addListener(this, AWTEvent.WINDOW_EVENT_MASK, JFrame.class);
     }
 
     public void unregister() {
-        Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+        AWTEventDispatcher.getInstance().removeListener(this);
     }
 
     public void eventDispatched(AWTEvent event) {
@@ -35,9 +36,15 @@ public class WindowActivationRecorder implements ComponentRecorder, AWTEventList
             WindowEvent windowEvent = (WindowEvent) event;
             if (windowEvent.getID() == WindowEvent.WINDOW_ACTIVATED) {
                 if (windowEvent.getWindow() instanceof JFrame) {
-                    JFrame frame = (JFrame) windowEvent.getWindow();
-                    recorder.record(new MethodCallEventCommand("window_activate", frame, null,
-                            createParameterMap("locator", frame.getTitle())));
+                    final JFrame frame = (JFrame) windowEvent.getWindow();
+                    final String title = frame.getTitle();
+                    recorder.record(new PendingEvent() {
+                        @Override
+                        public MethodCallEventCommand resolve() {
+                            return new MethodCallEventCommand("window_activate", frame, null,
+                                    createParameterMap("locator", title));
+                        }
+                    });
                 }
             }
         }
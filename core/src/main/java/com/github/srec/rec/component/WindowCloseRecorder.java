@@ -15,6 +15,7 @@ package com.github.srec.rec.component;
 
 import com.github.srec.command.method.MethodCallEventCommand;
 import com.github.srec.rec.EventRecorder;
+import com.github.srec.rec.PendingEvent;
 
 import javax.swing.*;
 import java.awt.*;
@@ -36,18 +37,24 @@ public class WindowCloseRecorder implements ComponentRecorder, AWTEventListener
     }
                                                              
     public void register() {
-        Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.WINDOW_EVENT_MASK);
+        AWTEventDispatcher.getInstance().addListener(this, AWTEvent.WINDOW_EVENT_MASK, JFrame.class);
     }
 
     public void unregister() {
-        Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+        AWTEventDispatcher.getInstance().removeListener(this);
     }
 
     public void eventDispatched(AWTEvent event) {
         if (!(event instanceof WindowEvent)) return;
         WindowEvent windowEvent = (WindowEvent) event;
         if (windowEvent.getID() != WindowEvent.WINDOW_CLOSING || !(windowEvent.getWindow() instanceof JFrame)) return;
-        JFrame frame = (JFrame) windowEvent.getWindow();
-        recorder.record(new MethodCallEventCommand("window_close", frame, null, createParameterMap("locator", frame.getTitle())));
+        final JFrame frame = (JFrame) windowEvent.getWindow();
+        final String title = frame.getTitle();
+        recorder.record(new PendingEvent() {
+            @Override
+            public MethodCallEventCommand resolve() {
+                return new MethodCallEventCommand("window_close", frame, null, createParameterMap("locator", title));
+            }
+        });
     }
 }
\ No newline at end of file
@@ -16,9 +16,12 @@ package com.github.srec.util;
 import com.github.srec.SRecException;
 
 import javax.swing.*;
+import javax.swing.text.JTextComponent;
 import java.awt.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Scans a tree of components for the one component which matches a given condition.
@@ -60,6 +63,15 @@ public class AWTTreeScanner {
         public boolean matches(Component component) {
             return component != null && component.getName() != null && component.getName().equals(name);
         }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "name=" + name;
+        }
     }
 
     /**
@@ -80,10 +92,15 @@ public class AWTTreeScanner {
             if (component instanceof JFrame) return ((JFrame) component).getTitle().equals(title);
             return ((JInternalFrame) component).getTitle().equals(title);
         }
+
+        @Override
+        public String toString() {
+            return "title=" + title;
+        }
     }
 
     /**
-     * Matches by component name.
+     * Matches by component text, for all components which have a <code>getText()</code> method.
      */
     public static class TextScannerMatcher implements ScannerMatcher {
         private String text;
@@ -95,23 +112,170 @@ public class AWTTreeScanner {
         @Override
         public boolean matches(Component component) {
             if (component == null) return false;
-            Method m = findGetTextMethod(component.getClass());
-            if (m == null) return false;
+            TextAccessor accessor = getTextAccessor(component.getClass());
+            return accessor != TextAccessor.NONE && text.equals(accessor.getText(component));
+        }
+
+        @Override
+        public String toString() {
+            return "text=" + text;
+        }
+
+        /**
+         * Checks if components of the given class have a text which can be matched.
+         *
+         * @param clazz The component class
+         * @return true if the class has a getText() method
+         */
+        public static boolean hasText(Class<?> clazz) {
+            return getTextAccessor(clazz) != TextAccessor.NONE;
+        }
+    }
+
+    /**
+     * Matches components which are instances of a given class.
+     */
+    public static class TypeScannerMatcher implements ScannerMatcher {
+        private Class<?> type;
+
+        public TypeScannerMatcher(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean matches(Component component) {
+            return type.isInstance(component);
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return "type=" + type.getName();
+        }
+    }
+
+    /**
+     * Matches components which are matched by all the given matchers. The matchers are checked in order and the check
+     * stops at the first one which fails, so the cheapest ones should come first, for example a type check before a
+     * text check.
+     */
+    public static class AllScannerMatcher implements ScannerMatcher {
+        private ScannerMatcher[] matchers;
+
+        public AllScannerMatcher(ScannerMatcher... matchers) {
+            if (matchers.length == 0) throw new IllegalArgumentException("At least one matcher is required");
+            this.matchers = matchers;
+        }
+
+        @Override
+        public boolean matches(Component component) {
+            for (ScannerMatcher matcher : matchers) {
+                if (!matcher.matches(component)) return false;
+            }
+            return true;
+        }
+
+        public ScannerMatcher[] getMatchers() {
+            return matchers;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder strb = new StringBuilder();
+            for (ScannerMatcher matcher : matchers) {
+                if (strb.length() > 0) strb.append(",");
+                strb.append(matcher);
+            }
+            return strb.toString();
+        }
+    }
+
+    /**
+     * The text accessors already found, by component class. Classes without a text are mapped to
+     * {@link TextAccessor#NONE}.
+     */
+    private static final ConcurrentMap<Class<?>, TextAccessor> textAccessors =
+            new ConcurrentHashMap<Class<?>, TextAccessor>();
+
+    /**
+     * Gets the text accessor for a component class, looking it up only once per class.
+     *
+     * @param clazz The component class
+     * @return The accessor, {@link TextAccessor#NONE} if the class has no text
+     */
+    static TextAccessor getTextAccessor(Class<?> clazz) {
+        TextAccessor accessor = textAccessors.get(clazz);
+        if (accessor == null) {
+            accessor = createTextAccessor(clazz);
+            textAccessors.putIfAbsent(clazz, accessor);
+        }
+        return accessor;
+    }
+
+    private static TextAccessor createTextAccessor(Class<?> clazz) {
+        if (JTextComponent.class.isAssignableFrom(clazz)) return TextAccessor.TEXT_COMPONENT;
+        if (AbstractButton.class.isAssignableFrom(clazz)) return TextAccessor.BUTTON;
+        if (JLabel.class.isAssignableFrom(clazz)) return TextAccessor.LABEL;
+        for (Method method : clazz.getMethods()) {
+            if ("getText".equals(method.getName()) && method.getParameterTypes().length == 0
+                    && method.getReturnType() == String.class) {
+                return new ReflectiveTextAccessor(method);
+            }
+        }
+        return TextAccessor.NONE;
+    }
+
+    /**
+     * Reads the text of a component. The common Swing components are read directly, others via reflection.
+     */
+    abstract static class TextAccessor {
+        static final TextAccessor NONE = new TextAccessor() {
+            @Override
+            String getText(Component component) {
+                return null;
+            }
+        };
+        static final TextAccessor TEXT_COMPONENT = new TextAccessor() {
+            @Override
+            String getText(Component component) {
+                return ((JTextComponent) component).getText();
+            }
+        };
+        static final TextAccessor BUTTON = new TextAccessor() {
+            @Override
+            String getText(Component component) {
+                return ((AbstractButton) component).getText();
+            }
+        };
+        static final TextAccessor LABEL = new TextAccessor() {
+            @Override
+            String getText(Component component) {
+                return ((JLabel) component).getText();
+            }
+        };
+
+        abstract String getText(Component component);
+    }
+
+    private static class ReflectiveTextAccessor extends TextAccessor {
+        private final Method method;
+
+        private ReflectiveTextAccessor(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        String getText(Component component) {
             try {
-                String currText = (String) m.invoke(component);
-                return text.equals(currText);
+                return (String) method.invoke(component);
             } catch (IllegalAccessException e) {
                 throw new SRecException(e);
             } catch (InvocationTargetException e) {
                 throw new SRecException(e);
             }
         }
-
-        private Method findGetTextMethod(Class<? extends Component> clazz) {
-            for (Method method : clazz.getMethods()) {
-                if ("getText".equals(method.getName()) && method.getParameterTypes().length == 0) return method;
-            }
-            return null;
-        }
     }
 }
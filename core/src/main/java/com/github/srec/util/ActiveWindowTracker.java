@@ -0,0 +1,171 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks the active window from the window events, so that it does not have to be searched for among all windows. Also
+ * keeps the windows which were recently active, most recent first, and the open dialogs. A single instance subscribes
+ * to the events of all windows through {@link Toolkit#addAWTEventListener(AWTEventListener, long)}.
+ *
+ * @author Victor Tatai
+ */
+public class ActiveWindowTracker {
+    private static ActiveWindowTracker instance;
+
+    private Window active;
+    /**
+     * The windows which were active and are not closed yet, most recently active first.
+     */
+    private final LinkedList<Window> recent = new LinkedList<Window>();
+    private final Set<Dialog> dialogs = new LinkedHashSet<Dialog>();
+
+    ActiveWindowTracker() {
+    }
+
+    /**
+     * Gets the tracker, starting it on the first call.
+     *
+     * @return The tracker
+     */
+    public static synchronized ActiveWindowTracker getInstance() {
+        if (instance == null) {
+            instance = new ActiveWindowTracker();
+            instance.start();
+        }
+        return instance;
+    }
+
+    private void start() {
+        Toolkit.getDefaultToolkit().addAWTEventListener(new AWTEventListener() {
+            @Override
+            public void eventDispatched(AWTEvent event) {
+                if (event instanceof WindowEvent) windowEvent((WindowEvent) event);
+            }
+        }, AWTEvent.WINDOW_EVENT_MASK | AWTEvent.WINDOW_FOCUS_EVENT_MASK);
+        // Windows which were opened or activated before the tracker was started
+        synchronized (this) {
+            for (Window window : Window.getWindows()) {
+                if (window instanceof Dialog && window.isDisplayable()) dialogs.add((Dialog) window);
+                if (window.isActive()) activated(window);
+            }
+        }
+    }
+
+    synchronized void windowEvent(WindowEvent event) {
+        Window window = event.getWindow();
+        switch (event.getID()) {
+            case WindowEvent.WINDOW_ACTIVATED:
+            case WindowEvent.WINDOW_GAINED_FOCUS:
+                activated(window);
+                break;
+            case WindowEvent.WINDOW_DEACTIVATED:
+                if (active == window) active = null;
+                break;
+            case WindowEvent.WINDOW_OPENED:
+                if (window instanceof Dialog) dialogs.add((Dialog) window);
+                break;
+            case WindowEvent.WINDOW_CLOSED:
+                if (active == window) active = null;
+                recent.remove(window);
+                dialogs.remove(window);
+                break;
+        }
+    }
+
+    private void activated(Window window) {
+        active = window;
+        if (recent.peekFirst() != window) {
+            recent.remove(window);
+            recent.addFirst(window);
+        }
+    }
+
+    /**
+     * Gets the active window.
+     *
+     * @return The active window, null if no window of this application is active
+     */
+    public Window getActiveWindow() {
+        return getActiveWindow(null);
+    }
+
+    /**
+     * Gets the active window, unless it is one of the ignored windows.
+     *
+     * @param ignored The windows to ignore, may be null
+     * @return The active window, null if no window of this application is active or if it is ignored
+     */
+    public synchronized Window getActiveWindow(Collection<? extends Container> ignored) {
+        Window window = active;
+        if (window == null || !window.isActive()) {
+            // The activation event may not have been dispatched yet
+            window = findActive();
+            if (window != null) activated(window);
+        }
+        if (window == null || (ignored != null && ignored.contains(window))) return null;
+        return window;
+    }
+
+    private Window findActive() {
+        for (Window window : recent) {
+            if (window.isActive()) return window;
+        }
+        for (Window window : Window.getWindows()) {
+            if (window.isActive()) return window;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the windows which were active at some point and are not closed yet.
+     *
+     * @return The windows, most recently active first
+     */
+    public synchronized List<Window> getRecentWindows() {
+        List<Window> windows = new ArrayList<Window>(recent.size());
+        for (Iterator<Window> it = recent.iterator(); it.hasNext();) {
+            Window window = it.next();
+            // Windows disposed of while they were hidden do not get a closed event
+            if (window.isDisplayable()) windows.add(window);
+            else it.remove();
+        }
+        return windows;
+    }
+
+    /**
+     * Gets the dialogs which are open.
+     *
+     * @return The dialogs, in the order they were opened
+     */
+    public synchronized List<Dialog> getOpenDialogs() {
+        List<Dialog> list = new ArrayList<Dialog>(dialogs.size());
+        for (Iterator<Dialog> it = dialogs.iterator(); it.hasNext();) {
+            Dialog dialog = it.next();
+            if (dialog.isDisplayable()) list.add(dialog);
+            else it.remove();
+        }
+        return list;
+    }
+}
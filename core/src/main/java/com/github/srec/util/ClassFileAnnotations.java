@@ -0,0 +1,174 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads the runtime visible annotations of a class directly from its class file, without loading the class.
+ *
+ * @author Victor Tatai
+ */
+public final class ClassFileAnnotations {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private ClassFileAnnotations() {
+    }
+
+    /**
+     * Reads the names of the annotations present on a class.
+     *
+     * @param is The class file contents, not closed by this method
+     * @return The annotation class names, such as "com.github.srec.command.SRecCommand"
+     * @throws IOException in case the stream cannot be read or is not a class file
+     */
+    public static Set<String> read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        if (in.readInt() != MAGIC) throw new IOException("Not a class file");
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        String[] utf8 = readConstantPool(in);
+        in.readUnsignedShort(); // access flags
+        in.readUnsignedShort(); // this class
+        in.readUnsignedShort(); // super class
+        skipFully(in, 2 * in.readUnsignedShort()); // interfaces
+        skipMembers(in); // fields
+        skipMembers(in); // methods
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) return readAnnotations(in, utf8);
+            skipFully(in, length);
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Reads the constant pool, keeping only the UTF8 entries which are the only ones needed.
+     */
+    private static String[] readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skipFully(in, 2);
+                    break;
+                case 15: // MethodHandle
+                    skipFully(in, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skipFully(in, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skipFully(in, 8);
+                    i++; // takes two entries
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return utf8;
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skipFully(in, 6); // access flags, name, descriptor
+            int attributes = in.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                skipFully(in, 2);
+                skipFully(in, in.readInt());
+            }
+        }
+    }
+
+    private static Set<String> readAnnotations(DataInputStream in, String[] utf8) throws IOException {
+        int count = in.readUnsignedShort();
+        Set<String> annotations = new HashSet<String>();
+        for (int i = 0; i < count; i++) {
+            annotations.add(toClassName(utf8[in.readUnsignedShort()]));
+            skipElementValuePairs(in);
+        }
+        return annotations;
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            skipFully(in, 2); // name
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                skipFully(in, 4);
+                break;
+            case '@':
+                skipFully(in, 2);
+                skipElementValuePairs(in);
+                break;
+            case '[':
+                int values = in.readUnsignedShort();
+                for (int i = 0; i < values; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default:
+                // Constants and classes
+                skipFully(in, 2);
+        }
+    }
+
+    /**
+     * Converts a field descriptor such as "Lcom/github/srec/command/SRecCommand;" to a class name.
+     */
+    private static String toClassName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skipFully(DataInputStream in, int n) throws IOException {
+        while (n > 0) {
+            int skipped = in.skipBytes(n);
+            if (skipped <= 0) throw new IOException("Unexpected end of class file");
+            n -= skipped;
+        }
+    }
+}
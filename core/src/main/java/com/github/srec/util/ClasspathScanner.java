@@ -15,44 +15,95 @@ package com.github.srec.util;
 
 import org.apache.log4j.Logger;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 /**
+ * Scans packages for classes accepted by a selector. If the selector is an {@link AnnotationNameSelector} the class
+ * files are first filtered by their annotations, read in parallel directly from the class file bytes, and only the
+ * classes which pass that filter are loaded.
+ *
  * @author Antonio Gomes
  */
 public class ClasspathScanner {
     private static final Logger log = Logger.getLogger(ClasspathScanner.class);
     private static final String JAR_FILE_PATTERN = ".jar!";
 
+    private final int threads;
     private ClassSelector selector;
     private Set<Class<?>> classes;
+    private List<ClassFile> classFiles;
+    private List<JarFile> jars;
+
+    public ClasspathScanner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads The number of threads used to read the class files
+     */
+    public ClasspathScanner(int threads) {
+        this.threads = threads;
+    }
 
     // PUBLIC METHODS ------------------------------------------------------------------------------
 
-    public synchronized Set<Class<?>> scanPackage(String basePackage, ClassSelector selector) throws Exception {
+    public Set<Class<?>> scanPackage(String basePackage, ClassSelector selector) throws Exception {
+        return scanPackage(basePackage, selector, Collections.<String>emptySet());
+    }
+
+    /**
+     * Scans a package, skipping some classpath roots.
+     *
+     * @param basePackage The package
+     * @param selector The selector
+     * @param skippedRoots The URLs of the classpath roots to skip, such as <code>file:/app/classes/</code> or
+     * <code>jar:file:/app/lib/cmds.jar!/</code>
+     * @return The selected classes
+     * @throws Exception in case the package cannot be scanned
+     */
+    public synchronized Set<Class<?>> scanPackage(String basePackage, ClassSelector selector, Set<String> skippedRoots)
+            throws Exception {
         if (selector == null) {
             throw new NullPointerException("Selector cannot be null");
         }
         this.selector = selector;
         this.classes = new HashSet<Class<?>>();
+        this.classFiles = new ArrayList<ClassFile>();
+        this.jars = new ArrayList<JarFile>();
         Set<Class<?>> aux;
         try {
-            scanClasses0(basePackage);
+            scanClasses0(basePackage, skippedRoots);
+            checkClasses();
             aux = this.classes;
         }
         finally {
+            closeJars();
             this.selector = null;
             this.classes = null;
+            this.classFiles = null;
+            this.jars = null;
         }
 
         return aux;
@@ -60,7 +111,7 @@ public class ClasspathScanner {
 
     // HELPER CLASSES ------------------------------------------------------------------------------
 
-    private void scanClasses0(String basePackage)
+    private void scanClasses0(String basePackage, Set<String> skippedRoots)
             throws IOException, ClassNotFoundException, FileNotFoundException {
         File packageDirectory = null;
         ClassLoader cld = getLoader();
@@ -71,7 +122,12 @@ public class ClasspathScanner {
                     + "]");
         }
         while (basePackageUrls.hasMoreElements()) {
-            String packagePath = basePackageUrls.nextElement().getFile();
+            URL packageUrl = basePackageUrls.nextElement();
+            if (skippedRoots.contains(getRoot(packageUrl, basePackagePath))) {
+                log.debug("Skipping package URL: [" + packageUrl + "]");
+                continue;
+            }
+            String packagePath = packageUrl.getFile();
             if (packagePath.contains(JAR_FILE_PATTERN)) {
                 scanJarFile(basePackagePath, packagePath);
             } else {
@@ -81,6 +137,12 @@ public class ClasspathScanner {
         }
     }
 
+    private static String getRoot(URL packageUrl, String basePackagePath) {
+        String url = packageUrl.toString();
+        if (url.endsWith("/")) url = url.substring(0, url.length() - 1);
+        return url.endsWith(basePackagePath) ? url.substring(0, url.length() - basePackagePath.length()) : url;
+    }
+
     private void scanDirectory(String packageName, File packagePath)
             throws ClassNotFoundException, FileNotFoundException {
         if (packagePath.exists()) {
@@ -88,7 +150,7 @@ public class ClasspathScanner {
             for (File file : packageFiles) {
                 if (file.isFile() && file.getName().endsWith(".class")) {
                     String fullFileName = packageName + '.' + file.getName();
-                    checkClass(fullFileName);
+                    classFiles.add(new DirectoryClassFile(fullFileName, file));
                 } else if (file.isDirectory()) {
                     scanDirectory(packageName + "." + file.getName(), file);
                 }
@@ -107,14 +169,47 @@ public class ClasspathScanner {
         jarFilePath = URLDecoder.decode(jarFilePath, "UTF-8");
         log.debug("Decoded JAR file path: [" + jarFilePath + "]");
         JarFile jar = new JarFile(new File(jarFilePath));
+        jars.add(jar);
         for (Enumeration<JarEntry> jarFiles = jar.entries(); jarFiles.hasMoreElements();) {
             JarEntry file = jarFiles.nextElement();
             String fileName = file.getName();
             if (!file.isDirectory() && fileName.endsWith(".class")
                     && fileName.startsWith(basePackagePath)) {
                 String className = fileName.replace('/', '.');
-                checkClass(className);
+                classFiles.add(new JarClassFile(className, jar, file));
+            }
+        }
+    }
+
+    private void checkClasses() throws ClassNotFoundException {
+        if (!(selector instanceof AnnotationNameSelector)) {
+            for (ClassFile classFile : classFiles) {
+                checkClass(classFile.fullFilePath);
             }
+            return;
+        }
+        final AnnotationNameSelector nameSelector = (AnnotationNameSelector) selector;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(classFiles.size());
+            for (final ClassFile classFile : classFiles) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return nameSelector.selectAnnotations(classFile.readAnnotations());
+                    }
+                }));
+            }
+            for (int i = 0; i < classFiles.size(); i++) {
+                if (results.get(i).get()) checkClass(classFiles.get(i).fullFilePath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClassNotFoundException("Interrupted while scanning classes", e);
+        } catch (ExecutionException e) {
+            throw new ClassNotFoundException("Error scanning classes", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -126,6 +221,16 @@ public class ClasspathScanner {
         }
     }
 
+    private void closeJars() {
+        for (JarFile jar : jars) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                log.debug("Could not close jar " + jar.getName(), e);
+            }
+        }
+    }
+
     private ClassLoader getLoader() {
         ClassLoader loader = Thread.currentThread().getContextClassLoader();
         if (loader == null) {
@@ -140,13 +245,96 @@ public class ClasspathScanner {
         boolean select(Class<?> clazz);
     }
 
-    public static class AnnotatedClassSelector implements ClassSelector {
+    /**
+     * A selector which can discard classes based only on the names of their annotations, before they are loaded.
+     */
+    public interface AnnotationNameSelector extends ClassSelector {
+        /**
+         * Checks the annotations read from a class file. Classes accepted here are then loaded and checked by
+         * {@link #select(Class)}.
+         *
+         * @param annotationNames The names of the runtime visible annotations of the class, null if they could not
+         * be read
+         * @return false if the class can be discarded without loading it
+         */
+        boolean selectAnnotations(Set<String> annotationNames);
+    }
+
+    /**
+     * A class file found while scanning.
+     */
+    private abstract static class ClassFile {
+        private final String fullFilePath;
+
+        protected ClassFile(String fullFilePath) {
+            this.fullFilePath = fullFilePath;
+        }
+
+        protected abstract InputStream open() throws IOException;
+
+        private Set<String> readAnnotations() {
+            try {
+                InputStream is = new BufferedInputStream(open());
+                try {
+                    return ClassFileAnnotations.read(is);
+                } finally {
+                    is.close();
+                }
+            } catch (IOException e) {
+                log.debug("Could not read annotations from " + fullFilePath + ": " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    private static class DirectoryClassFile extends ClassFile {
+        private final File file;
+
+        private DirectoryClassFile(String fullFilePath, File file) {
+            super(fullFilePath);
+            this.file = file;
+        }
+
+        @Override
+        protected InputStream open() throws IOException {
+            return new FileInputStream(file);
+        }
+    }
+
+    private static class JarClassFile extends ClassFile {
+        private final JarFile jar;
+        private final JarEntry entry;
+
+        private JarClassFile(String fullFilePath, JarFile jar, JarEntry entry) {
+            super(fullFilePath);
+            this.jar = jar;
+            this.entry = entry;
+        }
+
+        @Override
+        protected InputStream open() throws IOException {
+            return jar.getInputStream(entry);
+        }
+    }
+
+    public static class AnnotatedClassSelector implements AnnotationNameSelector {
         private final Class<? extends Annotation>[] annotations;
 
         public AnnotatedClassSelector(Class<? extends Annotation>... annotations) {
             this.annotations = annotations;
         }
 
+        public boolean selectAnnotations(Set<String> annotationNames) {
+            if (annotationNames == null) return true;
+            for (Class<? extends Annotation> ac : annotations) {
+                // Inherited annotations are not in the subclass file, so the class has to be loaded
+                if (annotationNames.contains(ac.getName()) || ac.isAnnotationPresent(Inherited.class)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         public boolean select(Class<?> clazz) {
             for (Class<? extends Annotation> ac : annotations) {
                 if (clazz.isAnnotationPresent(ac)) {
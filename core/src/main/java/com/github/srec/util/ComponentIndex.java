@@ -0,0 +1,455 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import org.apache.log4j.Logger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.ContainerEvent;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * An index of the components inside a window, by name and by class, used to resolve locators without walking the
+ * whole component tree. One index is created per window on its first lookup and then kept up to date by a single
+ * AWT event listener, which adds or removes the affected sub tree whenever a component is added to or removed from a
+ * container inside the window. The index of a window is dropped when the window is closed.<br><br>
+ *
+ * The index covers the tree under the outermost {@link JRootPane} of the window and is kept as a client property of
+ * that root pane, so it is only reachable from the window itself and never keeps a disposed window alive. Components
+ * which are not under a root pane are always looked up with a scan. As AWT fires the container events while holding
+ * the tree lock, the index is always locked after the tree lock.<br><br>
+ *
+ * Renaming a component does not fire any event, so a name lookup which misses the index falls back to a full scan
+ * and fixes the index if the scan finds the component. Titles and texts are not indexed since they change all the
+ * time, instead the index keeps the components which may have a title or text, and only these are checked.<br><br>
+ *
+ * In {@link Mode#VERIFY} mode every lookup is cross-checked against a full scan, and differences are logged.
+ *
+ * @author Victor Tatai
+ */
+public class ComponentIndex {
+    private static final Logger log = Logger.getLogger(ComponentIndex.class);
+
+    public enum Mode {
+        /**
+         * No index, every lookup walks the component tree.
+         */
+        OFF,
+        ON,
+        /**
+         * Uses the index but also walks the tree, logging an error if the results differ.
+         */
+        VERIFY;
+
+        /**
+         * Parses a mode name, case insensitive.
+         *
+         * @param name The name, may be blank
+         * @return The mode, null if name is blank
+         */
+        public static Mode parse(String name) {
+            if (isBlank(name)) return null;
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid component index mode: " + name);
+            }
+        }
+    }
+
+    private static volatile Mode mode = Mode.ON;
+    /**
+     * Incremented whenever indexing is turned off, so that the indexes created before are dropped.
+     */
+    private static volatile int generation;
+    private static boolean listenerInstalled;
+    /**
+     * Keeps all indexes up to date.
+     */
+    private static final AWTEventListener listener = new AWTEventListener() {
+        @Override
+        public void eventDispatched(AWTEvent event) {
+            if (event instanceof ContainerEvent) {
+                ContainerEvent containerEvent = (ContainerEvent) event;
+                ComponentIndex index = findIndex(containerEvent.getContainer());
+                if (index == null) return;
+                if (event.getID() == ContainerEvent.COMPONENT_ADDED) {
+                    index.addTree(containerEvent.getChild());
+                } else if (event.getID() == ContainerEvent.COMPONENT_REMOVED) {
+                    index.removeTree(containerEvent.getChild());
+                }
+            } else if (event.getID() == WindowEvent.WINDOW_CLOSED) {
+                JRootPane rootPane = getRootPane(((WindowEvent) event).getWindow());
+                if (rootPane != null) rootPane.putClientProperty(ComponentIndex.class, null);
+            }
+        }
+    };
+
+    private final Map<String, List<Component>> byName = new HashMap<String, List<Component>>();
+    private final Map<Class<?>, List<Component>> byClass = new HashMap<Class<?>, List<Component>>();
+    /**
+     * The name each component was indexed under, also used to know which components are indexed.
+     */
+    private final Map<Component, String> indexedNames = new IdentityHashMap<Component, String>();
+
+    private final int indexGeneration;
+
+    /**
+     * Creates the index, must be called holding the tree lock.
+     */
+    private ComponentIndex(JRootPane rootPane, int indexGeneration) {
+        this.indexGeneration = indexGeneration;
+        addTree(rootPane);
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode mode) {
+        ComponentIndex.mode = mode;
+        if (mode == Mode.OFF) generation++;
+    }
+
+    /**
+     * Finds the first component in the tree under root which is matched by the given matcher, like
+     * {@link AWTTreeScanner#scan(Component, ScannerMatcher)}.
+     *
+     * @param root The component root
+     * @param matcher The matcher
+     * @return The component found, null if none
+     */
+    public static Component find(Component root, ScannerMatcher matcher) {
+        ComponentIndex index = getIndex(root);
+        if (index == null) return AWTTreeScanner.scan(root, matcher);
+        // The root is checked first, as a scan would, since it may be outside of the indexed tree
+        if (matcher.matches(root)) return root;
+        Component found = index.findIndexed(root, matcher);
+        if (mode == Mode.VERIFY) {
+            Component scanned = AWTTreeScanner.scan(root, matcher);
+            if (scanned != found) {
+                log.error("Component index returned " + found + " but scan found " + scanned + " for " + matcher);
+                return scanned;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Lists all visible components under container (excluding itself) which are instances of the given class, in tree
+     * order.
+     *
+     * @param container The container
+     * @param componentClass The component class
+     * @return The components found
+     */
+    public static List<Component> findVisible(Container container, Class<? extends Component> componentClass) {
+        ComponentIndex index = getIndex(container);
+        if (index == null) return scanVisible(container, componentClass);
+        List<Component> found = index.findVisibleIndexed(container, componentClass);
+        if (mode == Mode.VERIFY) {
+            List<Component> scanned = scanVisible(container, componentClass);
+            if (!scanned.equals(found)) {
+                log.error("Component index returned " + found + " but scan found " + scanned + " for "
+                        + componentClass.getName());
+                return scanned;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Lists all visible components under container (excluding itself) which are instances of the given class, in tree
+     * order, walking the whole tree.
+     *
+     * @param container The container
+     * @param componentClass The component class
+     * @return The components found
+     */
+    public static List<Component> scanVisible(Container container, Class<? extends Component> componentClass) {
+        List<Component> list = new ArrayList<Component>();
+        for (Component component : container.getComponents()) {
+            if (component.isVisible() && componentClass.isAssignableFrom(component.getClass())) {
+                list.add(component);
+            }
+            if (component instanceof Container) {
+                list.addAll(scanVisible((Container) component, componentClass));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the index of the window containing the component, creating it if needed.
+     *
+     * @param component The component
+     * @return The index, null if indexing is off or the component is not under a root pane
+     */
+    static ComponentIndex getIndex(Component component) {
+        if (mode == Mode.OFF) return null;
+        JRootPane rootPane = getRootPane(component);
+        if (rootPane == null) return null;
+        installListener();
+        ComponentIndex index = getIndex(rootPane);
+        if (index != null) return index;
+        // Locking the tree keeps components from being added while the index is built
+        synchronized (rootPane.getTreeLock()) {
+            index = getIndex(rootPane);
+            if (index == null) {
+                index = new ComponentIndex(rootPane, generation);
+                rootPane.putClientProperty(ComponentIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    private static ComponentIndex getIndex(JRootPane rootPane) {
+        ComponentIndex index = (ComponentIndex) rootPane.getClientProperty(ComponentIndex.class);
+        return index == null || index.indexGeneration != generation ? null : index;
+    }
+
+    private static ComponentIndex findIndex(Component component) {
+        JRootPane rootPane = getRootPane(component);
+        return rootPane == null ? null : getIndex(rootPane);
+    }
+
+    /**
+     * Finds the outermost root pane containing the component, which is the root pane of the window for components
+     * inside a window.
+     */
+    private static JRootPane getRootPane(Component component) {
+        JRootPane rootPane = null;
+        for (Component c = component; c != null; c = c.getParent()) {
+            if (c instanceof JRootPane) {
+                rootPane = (JRootPane) c;
+            } else if (c instanceof Window) {
+                return c instanceof RootPaneContainer ? ((RootPaneContainer) c).getRootPane() : rootPane;
+            }
+        }
+        return rootPane;
+    }
+
+    private static synchronized void installListener() {
+        if (listenerInstalled) return;
+        Toolkit.getDefaultToolkit().addAWTEventListener(listener,
+                AWTEvent.CONTAINER_EVENT_MASK | AWTEvent.WINDOW_EVENT_MASK);
+        listenerInstalled = true;
+    }
+
+    // INDEX MAINTENANCE ---------------------------------------------------------------------------
+
+    private void addTree(Component component) {
+        synchronized (component.getTreeLock()) {
+            synchronized (this) {
+                addTreeLocked(component);
+            }
+        }
+    }
+
+    private void addTreeLocked(Component component) {
+        if (!indexedNames.containsKey(component)) {
+            String name = component.getName();
+            indexedNames.put(component, name);
+            add(byName, name, component);
+            add(byClass, component.getClass(), component);
+        }
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                addTreeLocked(child);
+            }
+        }
+    }
+
+    private void removeTree(Component component) {
+        synchronized (component.getTreeLock()) {
+            synchronized (this) {
+                removeTreeLocked(component);
+            }
+        }
+    }
+
+    private void removeTreeLocked(Component component) {
+        if (indexedNames.containsKey(component)) {
+            remove(byName, indexedNames.remove(component), component);
+            remove(byClass, component.getClass(), component);
+        }
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                removeTreeLocked(child);
+            }
+        }
+    }
+
+    private synchronized void reindex(Component component) {
+        if (!indexedNames.containsKey(component)) return;
+        remove(byName, indexedNames.get(component), component);
+        String name = component.getName();
+        indexedNames.put(component, name);
+        add(byName, name, component);
+    }
+
+    private static <K> void add(Map<K, List<Component>> map, K key, Component component) {
+        if (key == null) return;
+        List<Component> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<Component>(1);
+            map.put(key, list);
+        }
+        list.add(component);
+    }
+
+    private static <K> void remove(Map<K, List<Component>> map, K key, Component component) {
+        if (key == null) return;
+        List<Component> list = map.get(key);
+        if (list == null) return;
+        list.remove(component);
+        if (list.isEmpty()) map.remove(key);
+    }
+
+    // LOOKUPS -------------------------------------------------------------------------------------
+
+    private Component findIndexed(Component root, ScannerMatcher matcher) {
+        // Composite matchers are narrowed down by their first matcher
+        ScannerMatcher first = matcher;
+        while (first instanceof AWTTreeScanner.AllScannerMatcher) {
+            first = ((AWTTreeScanner.AllScannerMatcher) first).getMatchers()[0];
+        }
+        List<Component> candidates;
+        if (first instanceof AWTTreeScanner.NameScannerMatcher) {
+            candidates = findByName(((AWTTreeScanner.NameScannerMatcher) first).getName());
+        } else if (first instanceof AWTTreeScanner.TitleScannerMatcher) {
+            candidates = findByClass(JDialog.class, JFrame.class, JInternalFrame.class);
+        } else if (first instanceof AWTTreeScanner.TextScannerMatcher) {
+            candidates = findWithText();
+        } else if (first instanceof AWTTreeScanner.TypeScannerMatcher) {
+            candidates = findByClass(((AWTTreeScanner.TypeScannerMatcher) first).getType());
+        } else {
+            return AWTTreeScanner.scan(root, matcher);
+        }
+        List<Component> matches = new ArrayList<Component>(1);
+        for (Component candidate : candidates) {
+            if (isUnder(candidate, root) && matcher.matches(candidate)) matches.add(candidate);
+        }
+        if (matches.isEmpty()) {
+            if (!(first instanceof AWTTreeScanner.NameScannerMatcher)) return null;
+            // The component may have been renamed after it was indexed
+            Component scanned = AWTTreeScanner.scan(root, matcher);
+            if (scanned != null) {
+                log.debug("Component " + scanned + " was renamed, reindexing it");
+                reindex(scanned);
+            }
+            return scanned;
+        }
+        if (matches.size() > 1) Collections.sort(matches, TREE_ORDER);
+        return matches.get(0);
+    }
+
+    private List<Component> findVisibleIndexed(Container container, Class<? extends Component> componentClass) {
+        List<Component> list = new ArrayList<Component>();
+        for (Component candidate : findByClass(componentClass)) {
+            if (candidate != container && candidate.isVisible() && isUnder(candidate, container)) list.add(candidate);
+        }
+        Collections.sort(list, TREE_ORDER);
+        return list;
+    }
+
+    private synchronized List<Component> findByName(String name) {
+        List<Component> list = byName.get(name);
+        List<Component> candidates = list == null ? new ArrayList<Component>()
+                : new ArrayList<Component>(list);
+        // Also catches components renamed since they were indexed
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            Component candidate = candidates.get(i);
+            if (!name.equals(candidate.getName())) {
+                candidates.remove(i);
+                reindex(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    private synchronized List<Component> findByClass(Class<?>... classes) {
+        List<Component> candidates = new ArrayList<Component>();
+        for (Map.Entry<Class<?>, List<Component>> entry : byClass.entrySet()) {
+            for (Class<?> cl : classes) {
+                if (cl.isAssignableFrom(entry.getKey())) {
+                    candidates.addAll(entry.getValue());
+                    break;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private synchronized List<Component> findWithText() {
+        List<Component> candidates = new ArrayList<Component>();
+        for (Map.Entry<Class<?>, List<Component>> entry : byClass.entrySet()) {
+            if (AWTTreeScanner.TextScannerMatcher.hasText(entry.getKey())) candidates.addAll(entry.getValue());
+        }
+        return candidates;
+    }
+
+    private static boolean isUnder(Component component, Component root) {
+        return component == root || SwingUtilities.isDescendingFrom(component, root);
+    }
+
+    /**
+     * Orders components as a depth first walk of the tree would find them, parents first.
+     */
+    private static final Comparator<Component> TREE_ORDER = new Comparator<Component>() {
+        @Override
+        public int compare(Component c1, Component c2) {
+            if (c1 == c2) return 0;
+            List<Component> path1 = getPath(c1);
+            List<Component> path2 = getPath(c2);
+            int i = 0;
+            while (i < path1.size() && i < path2.size() && path1.get(i) == path2.get(i)) i++;
+            // One is the ancestor of the other
+            if (i == path1.size()) return -1;
+            if (i == path2.size()) return 1;
+            if (i == 0) return 0;
+            Container parent = (Container) path1.get(i - 1);
+            return parent.getComponentZOrder(path1.get(i)) - parent.getComponentZOrder(path2.get(i));
+        }
+
+        private List<Component> getPath(Component component) {
+            List<Component> path = new ArrayList<Component>();
+            for (Component c = component; c != null; c = c.getParent()) {
+                path.add(c);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    };
+
+    /**
+     * Number of components in this index, for tests and debugging.
+     *
+     * @return The number of components
+     */
+    public synchronized int size() {
+        return indexedNames.size();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal CSV parser. Cells are separated by commas and may be quoted with double quotes, in which case they may
+ * contain commas, row separators and doubled quotes. Unquoted cells are trimmed.
+ *
+ * @author Victor Tatai
+ */
+public final class Csv {
+    private Csv() {
+    }
+
+    /**
+     * Parses CSV text. Line breaks always separate rows, empty lines are ignored.
+     *
+     * @param text The text
+     * @param rowSeparator An additional row separator, such as ';' for CSV written in a single line, or '\n' for none
+     * @return The rows
+     */
+    public static List<String[]> parse(String text, char rowSeparator) {
+        List<String[]> rows = new ArrayList<String[]>();
+        List<String> row = new ArrayList<String>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    cell.append(c);
+                } else if (i + 1 < length && text.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+                cell.setLength(0);
+            } else if (c == ',') {
+                row.add(wasQuoted ? cell.toString() : cell.toString().trim());
+                cell.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\n' || c == '\r' || c == rowSeparator) {
+                endRow(rows, row, cell, wasQuoted);
+                wasQuoted = false;
+            } else if (!wasQuoted) {
+                cell.append(c);
+            }
+        }
+        endRow(rows, row, cell, wasQuoted);
+        return rows;
+    }
+
+    private static void endRow(List<String[]> rows, List<String> row, StringBuilder cell, boolean wasQuoted) {
+        String last = wasQuoted ? cell.toString() : cell.toString().trim();
+        if (!row.isEmpty() || last.length() > 0 || wasQuoted) {
+            row.add(last);
+            rows.add(row.toArray(new String[row.size()]));
+        }
+        row.clear();
+        cell.setLength(0);
+    }
+}
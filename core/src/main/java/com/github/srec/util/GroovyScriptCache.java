@@ -0,0 +1,114 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+/**
+ * Process wide cache of compiled Groovy scripts, keyed by the expression text. Only the script classes are cached, each
+ * evaluation gets a new script instance bound to its own variables, so the cache can be shared between threads.<br><br>
+ *
+ * The cache is bounded, the least recently used expression is evicted when it is full. Each expression is compiled
+ * by its own class loader so that evicted classes can be garbage collected.
+ *
+ * @author Victor Tatai
+ */
+public final class GroovyScriptCache {
+    public static final int DEFAULT_MAX_SIZE = 500;
+    private static GroovyScriptCache instance;
+
+    private final LruCache<String, Class> scripts;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public GroovyScriptCache(int maxSize) {
+        scripts = new LruCache<String, Class>(maxSize);
+    }
+
+    public static synchronized GroovyScriptCache getInstance() {
+        if (instance == null) {
+            String size = PropertiesReader.getProperties().getProperty(PropertiesReader.GROOVY_SCRIPT_CACHE_SIZE);
+            instance = new GroovyScriptCache(isBlank(size) ? DEFAULT_MAX_SIZE : Integer.parseInt(size.trim()));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a script for the given expression, compiling it only if it is not already cached.
+     *
+     * @param expression The Groovy expression
+     * @param binding The variables the script should see
+     * @return The script, ready to run
+     */
+    public Script createScript(String expression, Binding binding) {
+        return InvokerHelper.createScript(getScriptClass(expression), binding);
+    }
+
+    private Class getScriptClass(String expression) {
+        Class scriptClass = scripts.get(expression);
+        if (scriptClass != null) {
+            hits.incrementAndGet();
+            return scriptClass;
+        }
+        misses.incrementAndGet();
+        scriptClass = new GroovyClassLoader(getLoader()).parseClass(expression);
+        scripts.put(expression, scriptClass);
+        return scriptClass;
+    }
+
+    private ClassLoader getLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = getClass().getClassLoader();
+        }
+        return loader;
+    }
+
+    /**
+     * Removes all cached scripts and resets the counters.
+     */
+    public void clear() {
+        scripts.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    public int size() {
+        return scripts.size();
+    }
+
+    public int getMaxSize() {
+        return scripts.getMaxSize();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "GroovyScriptCache(size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ")";
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread safe map with a maximum size, which evicts the least recently used entry when it is full. Used to cache
+ * values parsed or compiled from script texts.
+ *
+ * @author Victor Tatai
+ */
+public final class LruCache<K, V> {
+    private final int maxSize;
+    private final Map<K, V> map;
+
+    public LruCache(final int maxSize) {
+        this.maxSize = maxSize;
+        map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached value, making it the most recently used.
+     *
+     * @param key The key
+     * @return The value, null if it is not cached
+     */
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Caches a value, evicting the least recently used one if the cache is full.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -29,7 +29,14 @@ import java.util.Properties;
 public class PropertiesReader {
     public static final String PACKAGES_TO_SCAN_PROPERTY_NAME = "packages_to_scan";
     public static final String PLAYER_COMMAND_INTERVAL = "player_command_interval";
+    public static final String PLAYER_SYNC_MODE = "player_sync_mode";
+    public static final String PLAYER_IDLE_TIMEOUT = "player_idle_timeout";
     public static final String SCREENSHOTS_DIR = "screenshots_dir";
+    public static final String GROOVY_SCRIPT_CACHE_SIZE = "groovy_script_cache_size";
+    public static final String COMPONENT_INDEX = "component_index";
+    public static final String TIMEOUT_HISTORY = "timeout_history";
+    public static final String TIMEOUT_HISTORY_MARGIN = "timeout_history_margin";
+    public static final String FUSE_READ_ONLY = "fuse_read_only";
 
     private static Properties properties;
 
@@ -12,7 +12,6 @@ import com.github.srec.command.value.*;
 import com.github.srec.command.value.StringValue;
 import groovy.lang.Binding;
 import groovy.lang.GString;
-import groovy.lang.GroovyShell;
 
 import javax.swing.*;
 import java.awt.*;
@@ -188,7 +187,9 @@ public final class Utils {
      * @return The srec value
      */
     public static Value convertFromJava(Object o) {
-        if (o instanceof Long) {
+        if (o instanceof BigDecimal) {
+            return new NumberValue((BigDecimal) o);
+        } else if (o instanceof Long) {
             return new NumberValue(new BigDecimal((Long) o));
         } else if (o instanceof Integer) {
             return new NumberValue(new BigDecimal((Integer) o));
@@ -234,7 +235,8 @@ public final class Utils {
 
     /**
      * Evaluates an expression using Groovy. All VarCommands inside the context are used in order to evaluate the given
-     * expression.
+     * expression. The compiled expression is kept in the {@link GroovyScriptCache}, so evaluating the same expression
+     * again only rebinds the variables.
      *
      * @param context The EC
      * @param expression The expression to evaluate
@@ -248,8 +250,7 @@ public final class Utils {
                 binding.setVariable(entry.getKey(), convertToJava(((VarCommand) symbol).getValue(context)));
             }
         }
-        GroovyShell shell = new GroovyShell(binding);
-        final Object o = shell.evaluate(expression);
+        final Object o = GroovyScriptCache.getInstance().createScript(expression, binding).run();
         if (o instanceof GString) {
             return o.toString();
         }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command;
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class CommandIndexTest {
+    public void testLoad() throws IOException {
+        File first = writeIndex("# Comment\n\nclick=com.github.srec.command.jemmy.ClickCommand\n"
+                + "  type = com.github.srec.command.jemmy.TypeCommand  \ninvalid line\n");
+        File second = writeIndex("click=com.acme.ClickCommand\nbuy=com.acme.trading.BuyCommand\n");
+        CommandIndex index = CommandIndex.load(new URLClassLoader(new URL[] {first.toURI().toURL(),
+                second.toURI().toURL()}, null));
+
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        // The first index found wins
+        expected.put("click", "com.github.srec.command.jemmy.ClickCommand");
+        expected.put("type", "com.github.srec.command.jemmy.TypeCommand");
+        assertEquals(index.getCommands("com.github.srec"), expected);
+        assertEquals(index.getCommands("com.github.srec.command.jemmy"), expected);
+        assertEquals(index.getCommands("com.acme"),
+                Collections.singletonMap("buy", "com.acme.trading.BuyCommand"));
+        assertTrue(index.getCommands("com.github.srec.command.jem").isEmpty());
+        assertEquals(index.getRoots(), new HashSet<String>(Arrays.asList(
+                first.toURI().toURL().toString(), second.toURI().toURL().toString())));
+    }
+
+    public void testNoIndex() throws IOException {
+        CommandIndex index = CommandIndex.load(new URLClassLoader(new URL[0], null));
+        assertTrue(index.isEmpty());
+        assertTrue(index.getRoots().isEmpty());
+    }
+
+    private static File writeIndex(String content) throws IOException {
+        File dir = File.createTempFile("srec-index", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Could not create " + dir);
+        File file = new File(dir, CommandIndex.INDEX_RESOURCE);
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return dir;
+    }
+}
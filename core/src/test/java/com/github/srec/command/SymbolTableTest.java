@@ -0,0 +1,180 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command;
+
+import com.github.srec.command.base.CommandSymbol;
+import com.github.srec.command.base.VarCommand;
+import com.github.srec.command.value.StringValue;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class SymbolTableTest {
+    public void testShadowing() {
+        SymbolTable parent = new SymbolTable();
+        CommandSymbol a = symbol(parent, "a");
+        CommandSymbol b = symbol(parent, "b");
+        SymbolTable child = new SymbolTable(parent);
+        CommandSymbol childA = symbol(child, "a");
+        CommandSymbol c = symbol(child, "c");
+
+        assertSame(child.get("a"), childA);
+        assertSame(child.get("b"), b);
+        assertSame(child.get("c"), c);
+        assertSame(parent.get("a"), a);
+        assertNull(parent.get("c"));
+
+        // Removing only affects the top layer, uncovering the parent symbol
+        assertSame(child.remove("a"), childA);
+        assertSame(child.get("a"), a);
+        assertNull(child.remove("b"));
+        assertSame(child.get("b"), b);
+        assertSame(parent.get("a"), a);
+    }
+
+    public void testEntrySet() {
+        SymbolTable parent = new SymbolTable();
+        symbol(parent, "a");
+        CommandSymbol b = symbol(parent, "b");
+        SymbolTable child = new SymbolTable(parent);
+        CommandSymbol childA = symbol(child, "a");
+        CommandSymbol c = symbol(child, "c");
+        SymbolTable empty = new SymbolTable(child);
+
+        Map<String, CommandSymbol> expected = new HashMap<String, CommandSymbol>();
+        expected.put("a", childA);
+        expected.put("b", b);
+        expected.put("c", c);
+        assertEquals(toMap(child), expected);
+        assertEquals(child.size(), 3);
+        // Layers without symbols are skipped
+        assertEquals(toMap(empty), expected);
+        assertEquals(empty.size(), 3);
+        assertEquals(parent.size(), 2);
+    }
+
+    public void testLazy() {
+        SymbolTable parent = new SymbolTable();
+        final int[] loads = new int[1];
+        final CommandSymbol lazy = new VarCommand("lazy", new StringValue("lazy"));
+        parent.putLazy("lazy", new SymbolTable.Loader() {
+            @Override
+            public CommandSymbol load() {
+                loads[0]++;
+                return lazy;
+            }
+        });
+        CommandSymbol a = symbol(parent, "a");
+        SymbolTable child = new SymbolTable(parent);
+
+        // Not loaded yet, so not listed
+        assertEquals(child.size(), 1);
+        assertFalse(toMap(child).containsKey("lazy"));
+        assertEquals(loads[0], 0);
+
+        assertTrue(child.containsKey("lazy"));
+        assertSame(child.get("lazy"), lazy);
+        assertSame(parent.get("lazy"), lazy);
+        assertEquals(loads[0], 1);
+        assertSame(parent.get("a"), a);
+        assertEquals(child.size(), 2);
+        assertTrue(toMap(child).containsKey("lazy"));
+    }
+
+    public void testFrozen() {
+        SymbolTable parent = new SymbolTable();
+        CommandSymbol a = symbol(parent, "a");
+        parent.freeze();
+        assertFrozen(parent);
+
+        // Upper layers can still be written
+        SymbolTable child = new SymbolTable(parent);
+        CommandSymbol b = symbol(child, "b");
+        assertSame(child.get("a"), a);
+        assertSame(child.get("b"), b);
+        assertNull(parent.get("b"));
+    }
+
+    public void testExecutionContextLayers() {
+        ExecutionContext prototype = new ExecutionContext(null, null, (File) null);
+        VarCommand a = new VarCommand("a", new StringValue("a"));
+        prototype.addSymbol(a);
+        ExecutionContext child = new ExecutionContext(prototype);
+        VarCommand b = new VarCommand("b", new StringValue("b"));
+        child.addSymbol(b);
+        VarCommand childA = new VarCommand("a", new StringValue("child"));
+        child.addSymbol(childA);
+
+        assertSame(child.findSymbol("a"), childA);
+        assertSame(child.findSymbol("b"), b);
+        assertSame(prototype.findSymbol("a"), a);
+        assertNull(prototype.findSymbol("b"));
+        assertFalse(prototype.getSymbols().containsKey("b"));
+
+        // Other ECs created from the prototype do not see the symbols either
+        ExecutionContext other = new ExecutionContext(prototype);
+        assertSame(other.findSymbol("a"), a);
+        assertNull(other.findSymbol("b"));
+    }
+
+    private static CommandSymbol symbol(SymbolTable table, String name) {
+        CommandSymbol symbol = new VarCommand(name, new StringValue(name));
+        table.put(name, symbol);
+        return symbol;
+    }
+
+    private static Map<String, CommandSymbol> toMap(SymbolTable table) {
+        Map<String, CommandSymbol> map = new HashMap<String, CommandSymbol>();
+        for (Map.Entry<String, CommandSymbol> entry : table.entrySet()) {
+            // Shadowed symbols must not be listed
+            assertFalse(map.containsKey(entry.getKey()), entry.getKey());
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+
+    private static void assertFrozen(SymbolTable table) {
+        try {
+            table.put("b", new VarCommand("b", new StringValue("b")));
+            fail("Frozen table written");
+        } catch (UnsupportedOperationException e) {
+            assertNull(table.get("b"));
+        }
+        try {
+            table.remove("a");
+            fail("Frozen table written");
+        } catch (UnsupportedOperationException e) {
+            assertTrue(table.containsKey("a"));
+        }
+        try {
+            table.putLazy("c", null);
+            fail("Frozen table written");
+        } catch (UnsupportedOperationException e) {
+            assertNull(table.get("c"));
+        }
+    }
+}
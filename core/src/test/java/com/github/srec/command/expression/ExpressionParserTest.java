@@ -0,0 +1,82 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.expression;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.base.VarCommand;
+import com.github.srec.command.value.BooleanValue;
+import com.github.srec.command.value.NilValue;
+import com.github.srec.command.value.NumberValue;
+import com.github.srec.command.value.StringValue;
+import com.github.srec.util.Utils;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class ExpressionParserTest {
+    private static final String[] SUPPORTED = {
+            "1", "1.50", "-3", "x + 2", "x - y * 2", "(x - y) * 2", "x / 4", "x / 2.0", "s + x", "x + s", "s + 'a\\'b'",
+            "\"abc\" + n", "x == 10", "x == 10.0", "x != y", "s == 'text'", "n == null", "x < y", "s >= 'abc'",
+            "b && x > 3", "!b || n", "!s", "x > 3 && (y < 1 || b)", "true", "false", "null"
+    };
+
+    private static final String[] UNSUPPORTED = {
+            "x.toString()", "s.size()", "x++", "x ** 2", "\"$x\"", "s =~ 'a'", "010", "1L", "1e3", "[1, 2]",
+            "x ? 1 : 2", "x = 1", "x + ", "(x", "x y"
+    };
+
+    private ExecutionContext createContext() {
+        ExecutionContext context = new ExecutionContext(null, null, null);
+        context.addSymbol(new VarCommand("x", new NumberValue("10")));
+        context.addSymbol(new VarCommand("y", new NumberValue("2.5")));
+        context.addSymbol(new VarCommand("s", new StringValue("text")));
+        context.addSymbol(new VarCommand("b", BooleanValue.TRUE));
+        context.addSymbol(new VarCommand("n", NilValue.getInstance()));
+        return context;
+    }
+
+    public void testSameResultAsGroovy() {
+        ExecutionContext context = createContext();
+        for (String text : SUPPORTED) {
+            Expression expression = ExpressionParser.parse(text);
+            assertNotNull(expression, text);
+            Object groovy = Utils.groovyEvaluate(context, text);
+            Object fast = expression.evaluate(context);
+            if (groovy instanceof Number) {
+                assertEquals(((BigDecimal) fast).compareTo(new BigDecimal(groovy.toString())), 0, text);
+            } else {
+                assertEquals(fast, groovy, text);
+            }
+        }
+    }
+
+    public void testUnsupported() {
+        for (String text : UNSUPPORTED) {
+            assertNull(ExpressionParser.parse(text), text);
+        }
+    }
+
+    @Test(expectedExceptions = UnsupportedExpressionException.class)
+    public void testInexactDivision() {
+        ExpressionParser.parse("1 / 3").evaluate(createContext());
+    }
+}
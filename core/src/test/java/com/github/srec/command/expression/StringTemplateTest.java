@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.expression;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.base.VarCommand;
+import com.github.srec.command.value.BooleanValue;
+import com.github.srec.command.value.NilValue;
+import com.github.srec.command.value.NumberValue;
+import com.github.srec.command.value.StringValue;
+import com.github.srec.util.Utils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class StringTemplateTest {
+    private static final String[] SUPPORTED = {
+            "$name", "${name}", "name=$name", "name=${name}_suffix", "$x-$y", "${x}${y}", "row $b/$n end", "$name's",
+            "a $x b ${y} c"
+    };
+
+    private static final String[] UNSUPPORTED = {
+            "${x + 1}", "$name.size", "${name.size()}", "$", "${", "$ x", "${x", "\\$x", "say \"$x\"", "$1"
+    };
+
+    private ExecutionContext createContext() {
+        ExecutionContext context = new ExecutionContext(null, null, null);
+        context.addSymbol(new VarCommand("name", new StringValue("text")));
+        context.addSymbol(new VarCommand("x", new NumberValue("10.50")));
+        context.addSymbol(new VarCommand("y", new NumberValue("2")));
+        context.addSymbol(new VarCommand("b", BooleanValue.FALSE));
+        context.addSymbol(new VarCommand("n", NilValue.getInstance()));
+        return context;
+    }
+
+    public void testSameResultAsGroovy() {
+        ExecutionContext context = createContext();
+        for (String text : SUPPORTED) {
+            StringTemplate template = StringTemplate.get(text);
+            assertNotNull(template, text);
+            assertEquals(template.render(context), Utils.groovyEvaluate(context, "\"" + text + "\""), text);
+        }
+    }
+
+    public void testUnsupported() {
+        for (String text : UNSUPPORTED) {
+            assertNull(StringTemplate.get(text), text);
+        }
+    }
+
+    public void testUndefinedVariable() {
+        assertNull(StringTemplate.get("$undefined").render(createContext()));
+    }
+}
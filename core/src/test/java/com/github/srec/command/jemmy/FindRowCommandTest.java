@@ -0,0 +1,54 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.jemmy;
+
+import com.github.srec.command.exception.IllegalParametersException;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class FindRowCommandTest {
+    public void testParseValues() {
+        Map<String, String> values = FindRowCommand.parseValues(" Symbol = IBM, Side=Buy,0=");
+        assertEquals(new ArrayList<String>(values.keySet()), Arrays.asList("Symbol", "Side", "0"));
+        assertEquals(values.get("Symbol"), "IBM");
+        assertEquals(values.get("Side"), "Buy");
+        assertEquals(values.get("0"), "");
+    }
+
+    public void testParseQuotedValues() {
+        Map<String, String> values = FindRowCommand.parseValues("\"Name=Smith, John\",\"a=b=c\"");
+        assertEquals(values.size(), 2);
+        assertEquals(values.get("Name"), "Smith, John");
+        assertEquals(values.get("a"), "b=c");
+    }
+
+    @Test(expectedExceptions = IllegalParametersException.class)
+    public void testMissingSeparator() {
+        FindRowCommand.parseValues("Symbol=IBM, Buy");
+    }
+
+    @Test(expectedExceptions = IllegalParametersException.class)
+    public void testSeveralLines() {
+        FindRowCommand.parseValues("Symbol=IBM\nSide=Buy");
+    }
+}
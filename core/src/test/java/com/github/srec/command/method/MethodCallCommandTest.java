@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.command.method;
+
+import com.github.srec.command.ExecutionContext;
+import com.github.srec.command.base.LiteralCommand;
+import com.github.srec.command.exception.IllegalParametersException;
+import com.github.srec.command.value.StringValue;
+import com.github.srec.command.value.Type;
+import com.github.srec.command.value.Value;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class MethodCallCommandTest {
+    public void testDefaults() {
+        for (boolean linked : new boolean[] {true, false}) {
+            ProbeCommand probe = new ProbeCommand();
+            MethodCallCommand call = createCall(probe, linked, "required", "a");
+            call.run(createContext(probe));
+            assertEquals(probe.params.size(), 2);
+            assertEquals(probe.params.get("required").get(), "a");
+            assertEquals(probe.params.get("optional").get(), "default");
+            assertFalse(probe.params.containsKey("noDefault"));
+
+            call = createCall(probe, linked, "required", "a", "optional", "b", "noDefault", "c");
+            call.run(createContext(probe));
+            assertEquals(probe.params.size(), 3);
+            assertEquals(probe.params.get("optional").get(), "b");
+            assertEquals(probe.params.get("noDefault").get(), "c");
+        }
+    }
+
+    public void testExplicitNull() {
+        for (boolean linked : new boolean[] {true, false}) {
+            ProbeCommand probe = new ProbeCommand();
+            MethodCallCommand call = new MethodCallCommand("probe", null);
+            call.addParameter("required", new LiteralCommand((Value) null));
+            call.addParameter("optional", new LiteralCommand((Value) null));
+            if (linked) call.link(probe);
+            call.run(createContext(probe));
+            assertEquals(probe.params.size(), 2);
+            assertTrue(probe.params.containsKey("required"));
+            assertNull(probe.params.get("required"));
+            // A null value gets the default like a parameter which was not passed
+            assertEquals(probe.params.get("optional").get(), "default");
+        }
+    }
+
+    public void testMissingParameter() {
+        ProbeCommand probe = new ProbeCommand();
+        MethodCallCommand call = createCall(probe, false, "optional", "b");
+        try {
+            call.link(probe);
+            fail("Invalid call linked");
+        } catch (IllegalParametersException e) {
+            assertFalse(call.isLinked());
+        }
+        try {
+            call.run(createContext(probe));
+            fail("Invalid call run");
+        } catch (IllegalParametersException e) {
+            assertNull(probe.params);
+        }
+    }
+
+    public void testExtraParameter() {
+        ProbeCommand probe = new ProbeCommand();
+        MethodCallCommand call = createCall(probe, false, "required", "a", "other", "b");
+        try {
+            call.link(probe);
+            fail("Invalid call linked");
+        } catch (IllegalParametersException e) {
+            assertFalse(call.isLinked());
+        }
+        try {
+            call.run(createContext(probe));
+            fail("Invalid call run");
+        } catch (IllegalParametersException e) {
+            assertNull(probe.params);
+        }
+    }
+
+    public void testFallback() {
+        ProbeCommand probe = new ProbeCommand();
+        MethodCallCommand call = createCall(probe, true, "required", "a");
+        assertTrue(call.isLinked());
+
+        // The name resolves to another method
+        ProbeCommand other = new ProbeCommand();
+        call.run(createContext(other));
+        assertNull(probe.params);
+        assertEquals(other.params.get("required").get(), "a");
+        assertEquals(other.params.get("optional").get(), "default");
+
+        // The method parameters changed
+        probe.addParameter(new MethodParameter("added", Type.STRING, true, new StringValue("added default")));
+        call.run(createContext(probe));
+        assertEquals(probe.params.size(), 3);
+        assertEquals(probe.params.get("added").get(), "added default");
+    }
+
+    private static MethodCallCommand createCall(MethodCommand method, boolean linked, String... params) {
+        MethodCallCommand call = new MethodCallCommand("probe", null);
+        for (int i = 0; i < params.length; i += 2) {
+            call.addParameter(params[i], new LiteralCommand(params[i + 1]));
+        }
+        if (linked) call.link(method);
+        return call;
+    }
+
+    private static ExecutionContext createContext(MethodCommand method) {
+        ExecutionContext context = new ExecutionContext(null, null, (File) null);
+        context.addSymbol(method);
+        return context;
+    }
+
+    /**
+     * Keeps a copy of the parameters of the last call.
+     */
+    private static class ProbeCommand extends MethodCommand {
+        private Map<String, Value> params;
+
+        private ProbeCommand() {
+            super("probe", param("required"), param("optional", Type.STRING, true, new StringValue("default")),
+                    param("noDefault", Type.STRING, true, null));
+        }
+
+        @Override
+        protected Value internalCallMethod(ExecutionContext context, Map<String, Value> params) {
+            this.params = new HashMap<String, Value>(params);
+            return null;
+        }
+    }
+}
@@ -17,14 +17,19 @@ import com.github.srec.command.ExecutionContext;
 import com.github.srec.command.ExecutionContextFactory;
 import com.github.srec.command.TestCase;
 import com.github.srec.command.TestSuite;
+import com.github.srec.command.base.Command;
+import com.github.srec.command.method.MethodCallCommand;
 import com.github.srec.command.method.MethodScriptCommand;
 import com.github.srec.command.value.Type;
 
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.util.List;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Victor Tatai
@@ -56,4 +61,18 @@ public class XmlParserTest {
         assertEquals(method.getParameters().size(), 1);
         assertEquals(method.getParameters().get("name").getType(), Type.STRING);
     }
+
+    public void testLinkedCalls() {
+        XmlParser p = new XmlParser();
+        final File file = new File("src/test/resources/test_linked_call.xml");
+        final ExecutionContext context = ExecutionContextFactory.getInstance().create(null, null, file);
+        TestSuite suite = p.parse(context, file);
+        assertEquals(p.getErrors().size(), 1);
+        List<Command> commands = suite.getTestCases().get(0).getExecutionContext().getCommands();
+        assertEquals(commands.size(), 4);
+        assertTrue(((MethodCallCommand) commands.get(0)).isLinked());
+        assertFalse(((MethodCallCommand) commands.get(1)).isLinked());
+        assertFalse(((MethodCallCommand) commands.get(2)).isLinked());
+        assertTrue(((MethodCallCommand) commands.get(3)).isLinked());
+    }
 }
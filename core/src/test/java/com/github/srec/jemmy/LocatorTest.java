@@ -0,0 +1,54 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+package com.github.srec.jemmy;
+
+import com.github.srec.util.AWTTreeScanner;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class LocatorTest {
+    public void testParse() {
+        Locator locator = Locator.compile("ok_button");
+        assertEquals(locator.getType(), "name");
+        assertEquals(locator.getValue(), "ok_button");
+        assertSame(locator.getStrategy(), Locator.Strategy.NAME);
+        assertTrue(locator.getMatcher() instanceof AWTTreeScanner.NameScannerMatcher);
+
+        locator = Locator.compile("text = Save as...");
+        assertEquals(locator.getType(), "text");
+        assertEquals(locator.getValue(), "Save as...");
+        assertEquals(locator.get("text"), "Save as...");
+        assertSame(locator.getStrategy(), Locator.Strategy.TEXT);
+        assertTrue(locator.getMatcher() instanceof AWTTreeScanner.TextScannerMatcher);
+
+        locator = Locator.compile("id=table");
+        assertSame(locator.getStrategy(), Locator.Strategy.ID);
+        assertNull(locator.getMatcher());
+
+        locator = Locator.compile("index=2");
+        assertSame(locator.getStrategy(), Locator.Strategy.UNSUPPORTED);
+        assertEquals(locator.get("index"), "2");
+    }
+
+    public void testCache() {
+        assertSame(Locator.compile("title=Main"), Locator.compile("title=Main"));
+    }
+}
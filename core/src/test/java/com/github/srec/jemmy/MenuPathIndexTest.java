@@ -0,0 +1,103 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.operators.Operator;
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import java.util.Arrays;
+
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class MenuPathIndexTest {
+    private static final Operator.StringComparator EXACT = new Operator.DefaultStringComparator(true, true);
+
+    public void testFind() {
+        JMenuBar bar = new JMenuBar();
+        JMenu menu = add(bar, "Menu");
+        JMenu sub = (JMenu) menu.add(new JMenu("Sub"));
+        menu.addSeparator();
+        JMenuItem show = add(sub, "Show");
+
+        assertSame(MenuPathIndex.find(bar, new String[] {"Menu", "Sub", "Show"}, EXACT), show);
+        assertSame(MenuPathIndex.find(bar, new int[] {0, 0, 0}), show);
+        assertNotFound(bar, "Menu", "Show");
+        assertNotFound(bar, 0, 1);
+        assertNotFound(bar, 1);
+    }
+
+    public void testHiddenAfterCached() {
+        JMenuBar bar = new JMenuBar();
+        JMenu menu = add(bar, "Menu");
+        JMenuItem first = add(menu, "Show");
+        JMenuItem second = add(menu, "Show");
+        String[] path = {"Menu", "Show"};
+        assertSame(MenuPathIndex.find(bar, path, EXACT), first);
+        assertSame(MenuPathIndex.find(bar, new int[] {0, 0}), first);
+
+        first.setVisible(false);
+        assertSame(MenuPathIndex.find(bar, path, EXACT), second);
+        assertNotFound(bar, 0, 0);
+
+        menu.setVisible(false);
+        assertNotFound(bar, "Menu", "Show");
+        assertNotFound(bar, 0, 1);
+    }
+
+    public void testDisabled() {
+        JMenuBar bar = new JMenuBar();
+        JMenu menu = add(bar, "Menu");
+        JMenuItem item = add(menu, "Show");
+        String[] path = {"Menu", "Show"};
+        assertSame(MenuPathIndex.find(bar, path, EXACT), item);
+
+        menu.setEnabled(false);
+        assertNotFound(bar, "Menu", "Show");
+        assertNotFound(bar, 0, 0);
+        menu.setEnabled(true);
+        assertSame(MenuPathIndex.find(bar, path, EXACT), item);
+    }
+
+    private static JMenu add(JMenuBar bar, String text) {
+        return bar.add(new JMenu(text));
+    }
+
+    private static JMenuItem add(JMenu menu, String text) {
+        return menu.add(new JMenuItem(text));
+    }
+
+    private static void assertNotFound(JMenuBar bar, String... texts) {
+        try {
+            MenuPathIndex.find(bar, texts, EXACT);
+            fail("Menu item found: " + Arrays.asList(texts));
+        } catch (JemmyDSLException e) {
+            // Expected
+        }
+    }
+
+    private static void assertNotFound(JMenuBar bar, int... indexes) {
+        try {
+            MenuPathIndex.find(bar, indexes);
+            fail("Menu item found: " + Arrays.toString(indexes));
+        } catch (JemmyDSLException e) {
+            // Expected
+        }
+    }
+}
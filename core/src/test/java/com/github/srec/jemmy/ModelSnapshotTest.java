@@ -0,0 +1,57 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class ModelSnapshotTest {
+    public void testList() {
+        DefaultListModel model = new DefaultListModel();
+        model.addElement("a");
+        model.addElement(null);
+        model.addElement("c");
+        ModelSnapshot snapshot = ModelSnapshot.of(model);
+        assertEquals(snapshot.size(), 3);
+        assertEquals(snapshot.firstDifference(new String[] {"a", "", "c"}), -1);
+        assertEquals(snapshot.firstDifference(new String[] {"a", "", "d"}), 2);
+        assertEquals(snapshot.firstDifference(new String[] {"a", ""}), 2);
+        assertEquals(snapshot.indexOf("c"), 2);
+        assertEquals(snapshot.indexOf("d"), -1);
+    }
+
+    public void testSorted() {
+        DefaultComboBoxModel model = new DefaultComboBoxModel(new Object[] {1, 2, 2, 5, 3});
+        assertEquals(ModelSnapshot.of(model).firstUnsorted(), 3);
+        model.removeElementAt(4);
+        assertEquals(ModelSnapshot.of(model).firstUnsorted(), -1);
+    }
+
+    public void testTableRegion() {
+        DefaultTableModel model = new DefaultTableModel(new Object[][] {{"a", "b", "c"}, {"d", "e", "f"}},
+                new Object[] {"x", "y", "z"});
+        ModelSnapshot snapshot = ModelSnapshot.of(model, 1, 1, 5, 5);
+        assertEquals(snapshot.getRowCount(), 1);
+        assertEquals(snapshot.getColumnCount(), 2);
+        assertEquals(snapshot.get(0, 1), "f");
+    }
+}
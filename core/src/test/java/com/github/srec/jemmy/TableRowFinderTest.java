@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.netbeans.jemmy.TimeoutExpiredException;
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class TableRowFinderTest {
+    public void testFindRow() {
+        for (boolean indexed : new boolean[] {false, true}) {
+            JTable table = new JTable(createModel());
+            assertEquals(find(table, indexed, "Name", "IBM", "Side", "Sell"), 2);
+            assertEquals(find(table, indexed, "0", "IBM"), 0);
+            assertEquals(find(table, indexed, "Name", "", "2", "4"), 3);
+            assertEquals(find(table, indexed, "Name", "IBM", "Side", "Hold"), -1);
+            assertEquals(find(table, indexed, "Name", "ORCL"), -1);
+        }
+    }
+
+    public void testFindFilteredRow() {
+        for (boolean indexed : new boolean[] {false, true}) {
+            JTable table = new JTable(createModel());
+            TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(table.getModel());
+            sorter.setRowFilter(RowFilter.regexFilter("Sell", 1));
+            table.setRowSorter(sorter);
+            // The first IBM row is hidden, the second one is the first visible row
+            assertEquals(find(table, indexed, "Name", "IBM"), 1);
+            assertEquals(find(table, indexed, "Name", "IBM", "Side", "Buy"), -1);
+        }
+    }
+
+    public void testIndexUpkeep() {
+        DefaultTableModel model = createModel();
+        JTable table = new JTable(model);
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), -1);
+        assertEquals(find(table, true, "Name", "MSFT"), 1);
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), 4);
+
+        // Updates are indexed in place
+        model.setValueAt("ORCL", 1, 0);
+        model.setValueAt("Buy", 2, 1);
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), 4);
+        assertEquals(find(table, true, "Name", "MSFT"), -1);
+        assertEquals(find(table, true, "Name", "ORCL"), 1);
+        model.setValueAt("IBM", 1, 0);
+        assertEquals(find(table, true, "Name", "IBM"), 0);
+        assertEquals(find(table, true, "Name", "IBM", "Side", "Sell"), 1);
+
+        // Appended rows are indexed by the next search, trailing rows are removed from the index
+        model.addRow(new Object[] {"ORCL", "Buy", 5});
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), 4);
+        assertEquals(find(table, true, "Name", "ORCL"), 4);
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), 5);
+        model.removeRow(4);
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), 4);
+        assertEquals(find(table, true, "Name", "ORCL"), -1);
+
+        // Other changes drop the index
+        model.insertRow(0, new Object[] {"ORCL", "Buy", 6});
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), -1);
+        assertEquals(find(table, true, "Name", "ORCL"), 0);
+        model.fireTableDataChanged();
+        assertEquals(TableRowFinder.getIndexedRowCount(model, 0), -1);
+    }
+
+    public void testChangingModel() {
+        // The model changes while it is indexed, the search has to scan it instead
+        JTable table = new JTable(new CountingModel(3 * TableRowFinder.CHUNK_SIZE, TableRowFinder.CHUNK_SIZE / 2));
+        assertEquals(find(table, true, "0", String.valueOf(3 * TableRowFinder.CHUNK_SIZE - 1)),
+                3 * TableRowFinder.CHUNK_SIZE - 1);
+    }
+
+    @Test(expectedExceptions = TimeoutExpiredException.class)
+    public void testDeadline() {
+        JTable table = new JTable(new CountingModel(3 * TableRowFinder.CHUNK_SIZE, 0));
+        TableRowFinder.findRow(table, values("0", "none"), false, System.currentTimeMillis() - 1);
+    }
+
+    private static DefaultTableModel createModel() {
+        return new DefaultTableModel(new Object[][] {{"IBM", "Buy", 1}, {"MSFT", "Sell", 2}, {"IBM", "Sell", 3},
+                {null, "Buy", 4}}, new Object[] {"Name", "Side", "Qty"});
+    }
+
+    private static int find(JTable table, boolean indexed, String... columnValues) {
+        return TableRowFinder.findRow(table, values(columnValues), indexed, System.currentTimeMillis() + 10000);
+    }
+
+    private static Map<String, String> values(String... columnValues) {
+        Map<String, String> values = new LinkedHashMap<String, String>();
+        for (int i = 0; i < columnValues.length; i += 2) {
+            values.put(columnValues[i], columnValues[i + 1]);
+        }
+        return values;
+    }
+
+    /**
+     * A single column model with the row numbers as values, which fires a data change every given number of reads.
+     */
+    private static class CountingModel extends AbstractTableModel {
+        private final int rowCount;
+        private final int changeInterval;
+        private int reads;
+
+        private CountingModel(int rowCount, int changeInterval) {
+            this.rowCount = rowCount;
+            this.changeInterval = changeInterval;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            if (changeInterval > 0 && ++reads % changeInterval == 0) fireTableDataChanged();
+            return rowIndex;
+        }
+    }
+}
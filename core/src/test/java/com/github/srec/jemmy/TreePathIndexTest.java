@@ -0,0 +1,120 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.jemmy;
+
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class TreePathIndexTest {
+    public void testFind() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("Root");
+        DefaultMutableTreeNode accounts = add(root, "Accounts");
+        DefaultMutableTreeNode emea = add(accounts, "EMEA");
+        DefaultMutableTreeNode arrow = add(add(root, "Other"), "a>b");
+        JTree tree = new JTree(root);
+
+        assertEquals(find(tree, "Root>Accounts>EMEA"), new TreePath(emea.getPath()));
+        assertEquals(find(tree, "Accounts > EMEA"), new TreePath(emea.getPath()));
+        assertEquals(find(tree, "EMEA"), new TreePath(emea.getPath()));
+        assertEquals(find(tree, "Root"), new TreePath(root));
+        assertNull(find(tree, "Root>EMEA"));
+        assertNull(find(tree, "APAC"));
+        // Labels with the separator are found as labels
+        assertEquals(find(tree, "a>b"), new TreePath(arrow.getPath()));
+    }
+
+    public void testLazyExpansion() {
+        final DefaultMutableTreeNode root = new DefaultMutableTreeNode("Root");
+        final DefaultMutableTreeNode lazy = add(root, "Lazy");
+        final DefaultTreeModel model = new DefaultTreeModel(root, true);
+        JTree tree = new JTree(model);
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                if (event.getPath().getLastPathComponent() == lazy && lazy.getChildCount() == 0) {
+                    model.insertNodeInto(new DefaultMutableTreeNode("Child", false), lazy, 0);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+            }
+        });
+
+        // Labels are only searched among the existing nodes
+        assertNull(find(tree, "Child"));
+        TreePath path = find(tree, "Root>Lazy>Child");
+        assertEquals(path.getPathCount(), 3);
+        assertSame(path.getParentPath().getLastPathComponent(), lazy);
+        assertEquals(find(tree, "Child"), path);
+    }
+
+    public void testInvalidation() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("Root");
+        DefaultMutableTreeNode accounts = add(root, "Accounts");
+        DefaultMutableTreeNode emea = add(accounts, "EMEA");
+        DefaultTreeModel model = new DefaultTreeModel(root);
+        JTree tree = new JTree(model);
+        assertEquals(find(tree, "Accounts>EMEA"), new TreePath(emea.getPath()));
+
+        emea.setUserObject("Europe");
+        model.nodeChanged(emea);
+        assertNull(find(tree, "Accounts>EMEA"));
+        assertNull(find(tree, "EMEA"));
+        assertEquals(find(tree, "Accounts>Europe"), new TreePath(emea.getPath()));
+
+        model.removeNodeFromParent(emea);
+        assertNull(find(tree, "Accounts>Europe"));
+
+        DefaultMutableTreeNode apac = new DefaultMutableTreeNode("APAC");
+        model.insertNodeInto(apac, accounts, 0);
+        assertEquals(find(tree, "APAC"), new TreePath(apac.getPath()));
+
+        DefaultMutableTreeNode other = new DefaultMutableTreeNode("Other");
+        tree.setModel(new DefaultTreeModel(other));
+        assertNull(find(tree, "Accounts>APAC"));
+        assertEquals(find(tree, "Other"), new TreePath(other));
+    }
+
+    private static DefaultMutableTreeNode add(DefaultMutableTreeNode parent, String label) {
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode(label);
+        parent.add(node);
+        return node;
+    }
+
+    private static TreePath find(final JTree tree, final String node) {
+        final TreePath[] path = new TreePath[1];
+        JemmyDSL.runOnEventThread(new Runnable() {
+            @Override
+            public void run() {
+                path[0] = TreePathIndex.find(tree, node);
+            }
+        });
+        return path[0];
+    }
+}
@@ -1,11 +1,20 @@
 package com.github.srec.play;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.awt.Color;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import org.testng.annotations.Test;
 
@@ -69,6 +78,10 @@ public class PlayerTest extends AbstractSRecTestNGTest {
         runTest("call.xml");
     }
 
+    public void testSyncIdle() {
+        runTest("test_sync_idle.xml");
+    }
+
     public void testComboListAboveComponent() {
         runTest("test_combo_list_above_component.xml");
     }
@@ -175,4 +188,76 @@ public class PlayerTest extends AbstractSRecTestNGTest {
     public void testClickTree() {
         runTest("test_click_tree.xml");
     }
+
+    public void testFusedReadOnly() throws IOException {
+        // The commands which passed in the fused run are the ones missing from the timeout history
+        File history = File.createTempFile("srec-timeouts", ".properties");
+        history.delete();
+        System.setProperty("com.github.srec.timeoutHistory", history.getPath());
+        try {
+            runTest("test_fused_read_only.xml");
+            Properties props = new Properties();
+            InputStream is = new FileInputStream(history);
+            try {
+                props.load(is);
+            } finally {
+                is.close();
+            }
+            Set<Integer> lines = new HashSet<Integer>();
+            for (String key : props.stringPropertyNames()) {
+                lines.add(Integer.valueOf(key.substring(key.lastIndexOf(':') + 1)));
+            }
+            assertFalse(lines.contains(20));
+            assertFalse(lines.contains(21));
+            assertFalse(lines.contains(26));
+            // Not fused because of its interpolated parameter
+            assertTrue(lines.contains(23));
+            assertTrue(lines.contains(24));
+            // Did not pass at once, run again normally
+            assertTrue(lines.contains(27));
+            assertTrue(lines.contains(28));
+        } finally {
+            System.clearProperty("com.github.srec.timeoutHistory");
+            history.delete();
+        }
+    }
+
+    public void testFindRow() {
+        runTest("test_find_row.xml");
+    }
+
+    public void testTypeBulk() {
+        runTest("test_type_bulk.xml");
+    }
+
+    public void testAssertTable() {
+        // The script is in a sub directory so that test_assert_table.csv is only found in the classpath
+        Player p = runTest("assert_table/test_assert_table.xml", false, false);
+        List<PlayerError> errors = p.getErrors();
+
+        assertEquals(errors.size(), 1);
+        assertEquals(errors.get(0).getTestCase(), "2");
+        assertEquals(errors.get(0).getLineNumber(), 32);
+        assertEquals(errors.get(0).getOriginatingException().getCause().getMessage(),
+                "Table content differs in 3 cell(s):"
+                        + "\n  (4, 1): expected 'Milner' but was 'Milne'"
+                        + "\n  (5, 0): expected 'Nobody' but the cell is outside the table"
+                        + "\n  (5, 1): expected 'Else' but the cell is outside the table");
+    }
+
+    public void testPushMenuDirect() {
+        Player p = runTest("test_push_menu_direct.xml", false, false);
+        List<PlayerError> errors = p.getErrors();
+
+        assertEquals(errors.size(), 3);
+        assertEquals(errors.get(0).getLineNumber(), 33);
+        assertEquals(errors.get(0).getOriginatingException().getCause().getMessage(),
+                "Menu item disabled: [Menu2, Menu21, Disabled]");
+        assertEquals(errors.get(1).getLineNumber(), 38);
+        assertEquals(errors.get(1).getOriginatingException().getCause().getMessage(),
+                "Menu item not found: [Menu2, Menu21, Missing]");
+        assertEquals(errors.get(2).getLineNumber(), 43);
+        assertEquals(errors.get(2).getOriginatingException().getCause().getMessage(),
+                "Menu item not found: [1, 0, 5]");
+    }
 }
\ No newline at end of file
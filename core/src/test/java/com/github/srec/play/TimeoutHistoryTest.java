@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.play;
+
+import com.github.srec.Location;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class TimeoutHistoryTest {
+    public void testTimeout() throws IOException {
+        File file = File.createTempFile("srec-timeouts", ".properties");
+        file.delete();
+        try {
+            Location step = new Location("test.xml", 10, 0, "<click locator=\"ok\"/>");
+            Location other = new Location("test.xml", 11, 0, "<click locator=\"cancel\"/>");
+            TimeoutHistory history = new TimeoutHistory(file, 1000);
+            for (int i = 1; i < TimeoutHistory.MIN_SAMPLES; i++) {
+                history.record(step, i * 100);
+            }
+            assertEquals(history.getTimeout(step), 0);
+            history.record(step, 5000);
+            assertEquals(history.getTimeout(step), 6000);
+            assertEquals(history.getTimeout(other), 0);
+
+            // Old durations are dropped
+            for (int i = 0; i < TimeoutHistory.MAX_SAMPLES; i++) {
+                history.record(step, 200);
+            }
+            assertEquals(history.getTimeout(step), 1200);
+
+            history.save();
+            assertEquals(new TimeoutHistory(file, 500).getTimeout(step), 700);
+        } finally {
+            file.delete();
+        }
+    }
+}
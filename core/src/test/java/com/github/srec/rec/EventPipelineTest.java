@@ -0,0 +1,191 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.rec;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class EventPipelineTest {
+    public void testOrderAcrossWrap() {
+        final List<Object> handled = Collections.synchronizedList(new ArrayList<Object>());
+        EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                handled.add(event);
+            }
+        }, "test-pipeline");
+        int count = 3 * EventPipeline.CAPACITY + 17;
+        for (int i = 0; i < count; i++) {
+            pipeline.offer(i);
+        }
+        pipeline.flush();
+        assertSequence(handled, count);
+        pipeline.shutdown();
+    }
+
+    public void testFullBufferBlocksProducer() throws InterruptedException {
+        final List<Object> handled = Collections.synchronizedList(new ArrayList<Object>());
+        final CountDownLatch release = new CountDownLatch(1);
+        final EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                handled.add(event);
+            }
+        }, "test-pipeline");
+        final int count = EventPipeline.CAPACITY + 10;
+        final AtomicInteger offered = new AtomicInteger();
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    pipeline.offer(i);
+                    offered.incrementAndGet();
+                }
+            }
+        };
+        producer.start();
+        // The first event is being handled, its slot is only freed once it is done
+        producer.join(500);
+        assertTrue(producer.isAlive());
+        assertEquals(offered.get(), EventPipeline.CAPACITY);
+
+        release.countDown();
+        producer.join(10000);
+        assertEquals(offered.get(), count);
+        pipeline.flush();
+        assertSequence(handled, count);
+        pipeline.shutdown();
+    }
+
+    public void testFlushWaitsForHandledEvents() {
+        final AtomicInteger handled = new AtomicInteger();
+        EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                sleep(5);
+                handled.incrementAndGet();
+            }
+        }, "test-pipeline");
+        for (int i = 0; i < 20; i++) {
+            pipeline.offer(i);
+        }
+        pipeline.flush();
+        assertEquals(handled.get(), 20);
+        pipeline.shutdown();
+    }
+
+    public void testShutdownDrains() {
+        final AtomicInteger handled = new AtomicInteger();
+        EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                if (handled.incrementAndGet() % 100 == 0) sleep(1);
+            }
+        }, "test-pipeline");
+        for (int i = 0; i < 2000; i++) {
+            pipeline.offer(i);
+        }
+        pipeline.shutdown();
+        assertEquals(handled.get(), 2000);
+        // Nothing is left to wait for
+        pipeline.flush();
+    }
+
+    public void testHandlerError() {
+        final List<Object> handled = Collections.synchronizedList(new ArrayList<Object>());
+        EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                if (event.equals(1)) throw new IllegalStateException("Test exception");
+                if (event.equals(2)) throw new AssertionError("Test error");
+                handled.add(event);
+            }
+        }, "test-pipeline");
+        for (int i = 0; i < 4; i++) {
+            pipeline.offer(i);
+        }
+        pipeline.shutdown();
+        assertEquals(handled, Arrays.<Object>asList(0, 3));
+    }
+
+    public void testOfferAfterShutdown() {
+        EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+            }
+        }, "test-pipeline");
+        pipeline.shutdown();
+        for (int i = 0; i < EventPipeline.CAPACITY; i++) {
+            pipeline.offer(i);
+        }
+        try {
+            pipeline.offer(EventPipeline.CAPACITY);
+            fail("Unhandled event overwritten");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    public void testNoLostWakeup() throws InterruptedException {
+        // Each event is added while the consumer is about to park or parked, without flushing, which unparks it
+        final Semaphore handled = new Semaphore(0);
+        EventPipeline pipeline = new EventPipeline(new EventPipeline.Handler() {
+            @Override
+            public void handle(Object event) {
+                handled.release();
+            }
+        }, "test-pipeline");
+        for (int i = 0; i < 20000; i++) {
+            pipeline.offer(i);
+            assertTrue(handled.tryAcquire(5, TimeUnit.SECONDS), "Event " + i + " was not handled");
+        }
+        pipeline.shutdown();
+    }
+
+    private static void assertSequence(List<Object> handled, int count) {
+        assertEquals(handled.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(handled.get(i), i);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.rec;
+
+import com.github.srec.command.method.MethodCallEventCommand;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.MouseEvent;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Measures the time the recorder adds to the dispatching of AWT events, by dispatching a storm of synthetic mouse and
+ * hierarchy events to components with and without the recorder. None of the events is recorded, so what is measured
+ * is the cost of listening. The components are never shown, so it may be run headless:
+ * <pre>java -Djava.awt.headless=true -cp &lt;test classpath&gt; com.github.srec.rec.RecorderBenchmark [events]</pre>
+ *
+ * Key events are not part of the storm since they are dropped when there is no focus owner.
+ *
+ * @author Victor Tatai
+ */
+public class RecorderBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+        Component[] components = createComponents();
+        AWTEvent[] storm = createStorm(components);
+
+        double baseline = measure(storm, events);
+        Recorder recorder = new Recorder(new RecorderEventCallback() {
+            @Override
+            public void addEvent(MethodCallEventCommand event) {
+            }
+
+            @Override
+            public void replaceLastEvent(MethodCallEventCommand event) {
+            }
+        });
+        recorder.init();
+        recorder.setRecording(true);
+        double recording;
+        try {
+            recording = measure(storm, events);
+        } finally {
+            recorder.shutdown();
+        }
+        System.out.println(String.format("Without recorder: %.1f ns/event", baseline));
+        System.out.println(String.format("With recorder:    %.1f ns/event", recording));
+        System.out.println(String.format("Overhead:         %.1f ns/event", recording - baseline));
+    }
+
+    private static Component[] createComponents() {
+        JPanel panel = new JPanel();
+        Component[] components = {new JLabel("label"), new JTextField("text"), new JButton("button"),
+                new JCheckBox("check"), new JComboBox(new Object[] {"a", "b"}), new JTable(10, 3), new JSlider(),
+                new JTabbedPane(), new JMenuItem("item"), new JPanel()};
+        for (Component component : components) {
+            panel.add(component);
+        }
+        return components;
+    }
+
+    /**
+     * Creates the events, none of which makes a recorder record anything or start listening to a component.
+     */
+    private static AWTEvent[] createStorm(Component[] components) {
+        AWTEvent[] storm = new AWTEvent[components.length * 4];
+        int i = 0;
+        for (Component component : components) {
+            storm[i++] = new MouseEvent(component, MouseEvent.MOUSE_MOVED, 0, 0, 1, 1, 0, false);
+            storm[i++] = new MouseEvent(component, MouseEvent.MOUSE_PRESSED, 0, 0, 1, 1, 1, false);
+            storm[i++] = new MouseEvent(component, MouseEvent.MOUSE_RELEASED, 0, 0, 1, 1, 1, false);
+            storm[i++] = new HierarchyEvent(component, HierarchyEvent.HIERARCHY_CHANGED, component,
+                    component.getParent(), HierarchyEvent.SHOWING_CHANGED);
+        }
+        return storm;
+    }
+
+    /**
+     * Dispatches the events in the EDT, as AWT would.
+     *
+     * @return The best time per event of all rounds, in nanoseconds
+     */
+    private static double measure(final AWTEvent[] storm, final int events)
+            throws InterruptedException, InvocationTargetException {
+        final long[] best = {Long.MAX_VALUE};
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(storm, events); // Warm up
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    dispatch(storm, events);
+                    best[0] = Math.min(best[0], System.nanoTime() - start);
+                }
+            }
+        });
+        return (double) best[0] / events;
+    }
+
+    private static void dispatch(AWTEvent[] storm, int events) {
+        for (int i = 0; i < events; i++) {
+            AWTEvent event = storm[i % storm.length];
+            ((Component) event.getSource()).dispatchEvent(event);
+        }
+    }
+}
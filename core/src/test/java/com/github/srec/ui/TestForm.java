@@ -10,6 +10,8 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 
 public class TestForm {
     private static final Logger logger = Logger.getLogger(TestForm.class);
@@ -68,6 +70,27 @@ public class TestForm {
                 textField2.setEnabled(true);
             }
         });
+        cb2.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                // A component which can only be found a while after the click
+                Timer timer = new Timer(500, new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        textField3.setName("delayedTF");
+                        textField3.setText("done");
+                    }
+                });
+                timer.setRepeats(false);
+                timer.start();
+            }
+        });
+        textArea.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyReleased(KeyEvent e) {
+                formattedTextField.setText("released " + e.getKeyChar());
+            }
+        });
     }
 
     private void openScript() {
@@ -137,6 +160,9 @@ public class TestForm {
             }
         });
         menu21.add(menuItem2);
+        final JMenuItem menuItem3 = new JMenuItem("Disabled");
+        menuItem3.setEnabled(false);
+        menu21.add(menuItem3);
         menu2.add(menu21);
         menuBar.add(menu2);
 
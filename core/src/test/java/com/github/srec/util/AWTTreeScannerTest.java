@@ -0,0 +1,83 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+package com.github.srec.util;
+
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import java.awt.*;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class AWTTreeScannerTest {
+    /**
+     * A component with a getText method which is not one of the Swing text components.
+     */
+    public static class CustomText extends JComponent {
+        public String getText() {
+            return "custom";
+        }
+    }
+
+    public void testTextMatcher() {
+        JPanel root = new JPanel();
+        JPanel inner = new JPanel();
+        JLabel label = new JLabel("label");
+        JButton button = new JButton("button");
+        JTextField field = new JTextField("field");
+        CustomText custom = new CustomText();
+        root.add(inner);
+        inner.add(label);
+        inner.add(field);
+        root.add(button);
+        root.add(custom);
+
+        assertSame(AWTTreeScanner.scan(root, new AWTTreeScanner.TextScannerMatcher("label")), label);
+        assertSame(AWTTreeScanner.scan(root, new AWTTreeScanner.TextScannerMatcher("button")), button);
+        assertSame(AWTTreeScanner.scan(root, new AWTTreeScanner.TextScannerMatcher("field")), field);
+        assertSame(AWTTreeScanner.scan(root, new AWTTreeScanner.TextScannerMatcher("custom")), custom);
+        assertNull(AWTTreeScanner.scan(root, new AWTTreeScanner.TextScannerMatcher("none")));
+        assertTrue(AWTTreeScanner.TextScannerMatcher.hasText(CustomText.class));
+        assertFalse(AWTTreeScanner.TextScannerMatcher.hasText(JPanel.class));
+    }
+
+    public void testAllMatcher() {
+        JPanel root = new JPanel();
+        JLabel label = new JLabel("ok");
+        JButton button = new JButton("ok");
+        root.add(label);
+        root.add(button);
+
+        assertSame(AWTTreeScanner.scan(root, new AWTTreeScanner.AllScannerMatcher(
+                new AWTTreeScanner.TypeScannerMatcher(JButton.class), new AWTTreeScanner.TextScannerMatcher("ok"))),
+                button);
+        assertNull(AWTTreeScanner.scan(root, new AWTTreeScanner.AllScannerMatcher(
+                new AWTTreeScanner.TypeScannerMatcher(JTextField.class), new AWTTreeScanner.TextScannerMatcher("ok"))));
+        // The text matcher must not be called once the type check fails
+        ScannerMatcher failing = new ScannerMatcher() {
+            @Override
+            public boolean matches(Component component) {
+                throw new AssertionError("Should not be called");
+            }
+        };
+        assertNull(AWTTreeScanner.scan(root, new AWTTreeScanner.AllScannerMatcher(
+                new AWTTreeScanner.TypeScannerMatcher(JTextField.class), failing)));
+    }
+}
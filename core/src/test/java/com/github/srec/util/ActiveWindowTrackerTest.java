@@ -0,0 +1,186 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.awt.*;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * The events are fed to a tracker which is not subscribed to the toolkit, and the windows are never shown: they only
+ * report being active or displayable, so no window manager or focus is needed. Windows cannot be created at all in a
+ * headless environment though, in which case the tests are skipped.
+ *
+ * @author Victor Tatai
+ */
+@Test
+public class ActiveWindowTrackerTest {
+    private ActiveWindowTracker tracker;
+    private final List<TestFrame> frames = new ArrayList<TestFrame>();
+
+    @BeforeMethod
+    public void setUp() {
+        if (GraphicsEnvironment.isHeadless()) throw new SkipException("Windows cannot be created when headless");
+        tracker = new ActiveWindowTracker();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        // The windows stay in Window.getWindows() until they are collected, where the tracker looks for active ones
+        for (TestFrame frame : frames) {
+            frame.active = false;
+        }
+        frames.clear();
+    }
+
+    public void testActivation() {
+        TestFrame first = new TestFrame();
+        TestFrame second = new TestFrame();
+        assertNull(tracker.getActiveWindow());
+
+        activate(first);
+        assertSame(tracker.getActiveWindow(), first);
+        deactivate(first);
+        assertNull(tracker.getActiveWindow());
+
+        // Gaining the focus also activates
+        second.active = true;
+        fire(second, WindowEvent.WINDOW_GAINED_FOCUS);
+        assertSame(tracker.getActiveWindow(), second);
+
+        // A window activated before its event is dispatched is still found
+        deactivate(second);
+        first.active = true;
+        assertSame(tracker.getActiveWindow(), first);
+        assertEquals(tracker.getRecentWindows(), Arrays.asList(first, second));
+    }
+
+    public void testRecentWindows() {
+        TestFrame first = new TestFrame();
+        TestFrame second = new TestFrame();
+        TestFrame third = new TestFrame();
+        activate(first);
+        activate(second);
+        activate(third);
+        activate(first);
+        assertEquals(tracker.getRecentWindows(), Arrays.asList(first, third, second));
+
+        close(third);
+        assertEquals(tracker.getRecentWindows(), Arrays.asList(first, second));
+        // Disposed of without a closed event
+        second.displayable = false;
+        assertEquals(tracker.getRecentWindows(), Arrays.asList(first));
+
+        close(first);
+        assertNull(tracker.getActiveWindow());
+        assertEquals(tracker.getRecentWindows(), Collections.emptyList());
+    }
+
+    public void testDialogs() {
+        TestDialog first = new TestDialog();
+        TestDialog second = new TestDialog();
+        fire(first, WindowEvent.WINDOW_OPENED);
+        fire(second, WindowEvent.WINDOW_OPENED);
+        fire(new TestFrame(), WindowEvent.WINDOW_OPENED);
+        assertEquals(tracker.getOpenDialogs(), Arrays.asList(first, second));
+
+        close(first);
+        assertEquals(tracker.getOpenDialogs(), Arrays.asList(second));
+        // Disposed of without a closed event
+        second.displayable = false;
+        assertEquals(tracker.getOpenDialogs(), Collections.emptyList());
+    }
+
+    public void testIgnored() {
+        TestFrame first = new TestFrame();
+        TestFrame second = new TestFrame();
+        activate(first);
+        assertNull(tracker.getActiveWindow(Arrays.asList(first)));
+        assertSame(tracker.getActiveWindow(Arrays.asList(second)), first);
+        assertSame(tracker.getActiveWindow(null), first);
+        // Ignoring a window does not change which one is active
+        assertSame(tracker.getActiveWindow(), first);
+    }
+
+    private void activate(TestFrame frame) {
+        for (TestFrame other : frames) {
+            other.active = false;
+        }
+        frame.active = true;
+        fire(frame, WindowEvent.WINDOW_ACTIVATED);
+    }
+
+    private void deactivate(TestFrame frame) {
+        frame.active = false;
+        fire(frame, WindowEvent.WINDOW_DEACTIVATED);
+    }
+
+    private void close(Window window) {
+        if (window instanceof TestFrame) {
+            ((TestFrame) window).active = false;
+            ((TestFrame) window).displayable = false;
+        } else {
+            ((TestDialog) window).displayable = false;
+        }
+        fire(window, WindowEvent.WINDOW_CLOSED);
+    }
+
+    private void fire(Window window, int id) {
+        tracker.windowEvent(new WindowEvent(window, id));
+    }
+
+    private class TestFrame extends Frame {
+        private boolean active;
+        private boolean displayable = true;
+
+        private TestFrame() {
+            frames.add(this);
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public boolean isDisplayable() {
+            return displayable;
+        }
+    }
+
+    private static class TestDialog extends Dialog {
+        private boolean displayable = true;
+
+        private TestDialog() {
+            super((Frame) null);
+        }
+
+        @Override
+        public boolean isDisplayable() {
+            return displayable;
+        }
+    }
+}
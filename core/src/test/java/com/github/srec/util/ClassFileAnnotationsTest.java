@@ -0,0 +1,117 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import com.github.srec.command.SRecCommand;
+import com.github.srec.command.jemmy.FindRowCommand;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class ClassFileAnnotationsTest {
+    public void testUnannotated() throws IOException {
+        assertEquals(read(Unannotated.class), Collections.<String>emptySet());
+    }
+
+    public void testRuntimeRetention() throws IOException {
+        assertEquals(read(FindRowCommand.class), Collections.singleton(SRecCommand.class.getName()));
+        assertEquals(read(Annotated.class), Collections.singleton(SRecCommand.class.getName()));
+    }
+
+    public void testClassRetention() throws IOException {
+        assertEquals(read(ClassRetained.class), Collections.<String>emptySet());
+        assertEquals(read(Mixed.class), Collections.singleton(SRecCommand.class.getName()));
+    }
+
+    public void testElementValues() throws IOException {
+        // Every kind of value must be skipped to get to the next annotation
+        assertEquals(read(WithValues.class), new HashSet<String>(Arrays.asList(Values.class.getName(),
+                Deprecated.class.getName())));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotAClassFile() throws IOException {
+        ClassFileAnnotations.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    private static Set<String> read(Class<?> c) throws IOException {
+        InputStream is = c.getClassLoader().getResourceAsStream(c.getName().replace('.', '/') + ".class");
+        try {
+            return ClassFileAnnotations.read(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    @Retention(RetentionPolicy.CLASS)
+    private @interface ClassOnly {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface Values {
+        String text();
+        int number();
+        ElementType type();
+        Class<?> type2();
+        long[] numbers();
+        Retention retention();
+    }
+
+    private static class Unannotated {
+    }
+
+    /**
+     * Long and double constants take two constant pool slots each, so the entries after them are misplaced if they
+     * are not accounted for.
+     */
+    @SRecCommand
+    private static class Annotated {
+        private static final long LONG = 1234567890123L;
+        private static final double DOUBLE = 3.5e300;
+
+        private double compute(long l, double d) {
+            return l * 9876543210987L + d * 1.25e-300 + LONG + DOUBLE;
+        }
+    }
+
+    @ClassOnly
+    private static class ClassRetained {
+    }
+
+    @ClassOnly
+    @SRecCommand
+    private static class Mixed {
+    }
+
+    @Values(text = "a", number = 1, type = ElementType.TYPE, type2 = String.class, numbers = {1, 2},
+            retention = @Retention(RetentionPolicy.RUNTIME))
+    @Deprecated
+    private static class WithValues {
+    }
+}
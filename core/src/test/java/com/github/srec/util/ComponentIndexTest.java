@@ -0,0 +1,136 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.swing.*;
+import java.awt.*;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * The windows are replaced by standalone root panes, which are indexed the same way and need no display.
+ *
+ * @author Victor Tatai
+ */
+@Test
+public class ComponentIndexTest {
+    private ComponentIndex.Mode previousMode;
+
+    @BeforeMethod
+    public void setUp() {
+        previousMode = ComponentIndex.getMode();
+        ComponentIndex.setMode(ComponentIndex.Mode.ON);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ComponentIndex.setMode(previousMode);
+    }
+
+    public void testUpkeep() {
+        JRootPane rootPane = new JRootPane();
+        Container content = rootPane.getContentPane();
+        JPanel panel = new JPanel();
+        content.add(panel);
+        panel.add(named(new JTextField(), "field"));
+        assertNotNull(ComponentIndex.find(content, new AWTTreeScanner.NameScannerMatcher("field")));
+        ComponentIndex index = ComponentIndex.getIndex(content);
+        int size = index.size();
+
+        // Added
+        JPanel added = new JPanel();
+        JButton button = named(new JButton(), "button");
+        added.add(button);
+        panel.add(added);
+        assertEquals(index.size(), size + 2);
+        assertSame(ComponentIndex.find(content, new AWTTreeScanner.NameScannerMatcher("button")), button);
+
+        // Renamed, which is only noticed on lookups
+        button.setName("renamed");
+        assertNull(ComponentIndex.find(content, new AWTTreeScanner.NameScannerMatcher("button")));
+        assertSame(ComponentIndex.find(content, new AWTTreeScanner.NameScannerMatcher("renamed")), button);
+
+        // Removed along with its sub tree
+        panel.remove(added);
+        assertEquals(index.size(), size);
+        assertNull(ComponentIndex.find(content, new AWTTreeScanner.NameScannerMatcher("renamed")));
+        assertSame(ComponentIndex.getIndex(content), index);
+    }
+
+    public void testFallbackToScan() {
+        JRootPane rootPane = new JRootPane();
+        final JLabel label = new JLabel("label");
+        rootPane.getContentPane().add(label);
+        // Matchers which cannot be narrowed down by the index
+        ScannerMatcher custom = new ScannerMatcher() {
+            @Override
+            public boolean matches(Component component) {
+                return component == label;
+            }
+        };
+        assertSame(ComponentIndex.find(rootPane, custom), label);
+
+        // Components outside a root pane
+        JPanel panel = new JPanel();
+        JLabel other = new JLabel("other");
+        panel.add(other);
+        assertNull(ComponentIndex.getIndex(panel));
+        assertSame(ComponentIndex.find(panel, new AWTTreeScanner.TextScannerMatcher("other")), other);
+
+        // Indexing off
+        ComponentIndex.setMode(ComponentIndex.Mode.OFF);
+        assertNull(ComponentIndex.getIndex(rootPane));
+        assertSame(ComponentIndex.find(rootPane, new AWTTreeScanner.TextScannerMatcher("label")), label);
+    }
+
+    public void testTreeOrder() {
+        JRootPane rootPane = new JRootPane();
+        Container content = rootPane.getContentPane();
+        JPanel first = new JPanel();
+        JPanel second = new JPanel();
+        content.add(first);
+        content.add(second);
+        ComponentIndex.getIndex(content);
+        // Added in the reverse of the tree order
+        second.add(named(new JButton("b"), "same"));
+        first.add(named(new JButton("b"), "same"));
+        JButton hidden = new JButton("b");
+        hidden.setVisible(false);
+        first.add(hidden, 0);
+
+        ScannerMatcher[] matchers = {new AWTTreeScanner.NameScannerMatcher("same"),
+                new AWTTreeScanner.TypeScannerMatcher(JButton.class), new AWTTreeScanner.TextScannerMatcher("b"),
+                new AWTTreeScanner.TypeScannerMatcher(JPanel.class)};
+        for (ScannerMatcher matcher : matchers) {
+            assertSame(ComponentIndex.find(content, matcher), AWTTreeScanner.scan(content, matcher), matcher.toString());
+            assertSame(ComponentIndex.find(second, matcher), AWTTreeScanner.scan(second, matcher), matcher.toString());
+        }
+        assertEquals(ComponentIndex.findVisible(content, JButton.class),
+                ComponentIndex.scanVisible(content, JButton.class));
+        assertEquals(ComponentIndex.findVisible(rootPane, JComponent.class),
+                ComponentIndex.scanVisible(rootPane, JComponent.class));
+    }
+
+    private static <T extends Component> T named(T component, String name) {
+        component.setName(name);
+        return component;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class CsvTest {
+    public void testInline() {
+        List<String[]> rows = Csv.parse(" a , b ;c,", ';');
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0), new String[] {"a", "b"});
+        assertEquals(rows.get(1), new String[] {"c", ""});
+    }
+
+    public void testQuoted() {
+        List<String[]> rows = Csv.parse("\"a, b\",\" c \"\n\n\"say \"\"hi\"\";\"\r\n", ';');
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0), new String[] {"a, b", " c "});
+        assertEquals(rows.get(1), new String[] {"say \"hi\";"});
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.util;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class LruCacheTest {
+    public void testEviction() {
+        LruCache<String, Integer> cache = new LruCache<String, Integer>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        // Makes b the least recently used
+        assertEquals(cache.get("a"), (Integer) 1);
+        cache.put("c", 3);
+        assertEquals(cache.size(), 2);
+        assertNull(cache.get("b"));
+        assertEquals(cache.get("a"), (Integer) 1);
+        assertEquals(cache.get("c"), (Integer) 3);
+    }
+
+    public void testReplaceAndClear() {
+        LruCache<String, Integer> cache = new LruCache<String, Integer>(2);
+        cache.put("a", 1);
+        cache.put("a", 2);
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.get("a"), (Integer) 2);
+        cache.clear();
+        assertEquals(cache.size(), 0);
+        assertNull(cache.get("a"));
+        assertEquals(cache.getMaxSize(), 2);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes the index of the classes annotated with <code>@SRecCommand</code> to <code>META-INF/srec/commands</code>, one
+ * <code>command_name=class.Name</code> line per command, so that srec does not need to scan the classpath for them.
+ * <br><br>
+ *
+ * The command name is the annotation value, or if none is given the class simple name without the
+ * <code>Command</code> suffix in lower case with underscores between words, so <code>AssertCellCommand</code> becomes
+ * <code>assert_cell</code> and <code>IFrameCloseCommand</code> becomes <code>iframe_close</code>.<br><br>
+ *
+ * An incremental build only compiles some of the commands, so the index already in the output directory is merged in,
+ * dropping the commands whose classes no longer exist, are no longer annotated or were renamed. Classes are looked up
+ * on the compile classpath, which must include the output directory for their commands to be kept. The processor
+ * claims all annotations, so that it also runs when no annotated class is compiled and the index only loses commands,
+ * but it never consumes them and other processors still get them.
+ *
+ * @author Victor Tatai
+ */
+@SupportedAnnotationTypes("*")
+public class SRecCommandProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "com.github.srec.command.SRecCommand";
+    public static final String INDEX_RESOURCE = "META-INF/srec/commands";
+
+    /**
+     * Command name to class name, sorted so that the index is stable between builds.
+     */
+    private final Map<String, String> commands = new TreeMap<String, String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            // Without a previous index there is nothing to update unless commands were compiled
+            if (mergeIndex() || !commands.isEmpty()) writeIndex();
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            if (!annotation.getQualifiedName().contentEquals(ANNOTATION)) continue;
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                addCommand(element);
+            }
+        }
+        return false;
+    }
+
+    private void addCommand(Element element) {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(element, "@SRecCommand can only be used on concrete classes");
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String name = getCommandName(type);
+        String previous = commands.put(name, className);
+        if (previous != null && !previous.equals(className)) {
+            error(element, "Command " + name + " is already defined by " + previous);
+        }
+    }
+
+    /**
+     * Gets the command name of a class.
+     *
+     * @return The name, null if the class is not annotated
+     */
+    private String getCommandName(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!ANNOTATION.equals(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    String value = entry.getValue().getValue().toString();
+                    if (value.length() > 0) return value;
+                }
+            }
+            return toCommandName(type.getSimpleName().toString());
+        }
+        return null;
+    }
+
+    /**
+     * Converts a class simple name to the default command name.
+     *
+     * @param simpleName The class simple name
+     * @return The command name
+     */
+    public static String toCommandName(String simpleName) {
+        String name = simpleName.endsWith("Command") && simpleName.length() > "Command".length()
+                ? simpleName.substring(0, simpleName.length() - "Command".length()) : simpleName;
+        StringBuilder strb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0 && !Character.isUpperCase(name.charAt(i - 1))) strb.append('_');
+                strb.append(Character.toLowerCase(c));
+            } else {
+                strb.append(c);
+            }
+        }
+        return strb.toString();
+    }
+
+    /**
+     * Adds the still valid commands of the index left by a previous build which were not compiled by this one.
+     *
+     * @return true if there is a previous index
+     */
+    private boolean mergeIndex() {
+        BufferedReader reader;
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            reader = new BufferedReader(file.openReader(true));
+        } catch (IOException e) {
+            // No previous index
+            return false;
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('=');
+                if (line.startsWith("#") || separator == -1) continue;
+                String name = line.substring(0, separator).trim();
+                String className = line.substring(separator + 1).trim();
+                if (commands.containsKey(name)) continue;
+                TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+                if (type != null && name.equals(getCommandName(type))) commands.put(name, className);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not read the previous " + INDEX_RESOURCE + ": " + e.getMessage());
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // Ignored
+            }
+        }
+        return true;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    INDEX_RESOURCE);
+            PrintWriter writer = new PrintWriter(file.openWriter());
+            try {
+                writer.println("# Generated by " + getClass().getName() + ", do not edit");
+                for (Map.Entry<String, String> entry : commands.entrySet()) {
+                    writer.println(entry.getKey() + "=" + entry.getValue());
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
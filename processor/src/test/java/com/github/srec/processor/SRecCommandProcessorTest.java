@@ -0,0 +1,159 @@
+/*
+ * Copyright 2010 Victor Tatai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package com.github.srec.processor;
+
+import org.testng.annotations.Test;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Victor Tatai
+ */
+@Test
+public class SRecCommandProcessorTest {
+    private static final String ANNOTATION_SOURCE = "package com.github.srec.command;\n"
+            + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+            + "public @interface SRecCommand { String value() default \"\"; }";
+
+    public void testCommandNames() {
+        assertEquals(SRecCommandProcessor.toCommandName("AssertCellCommand"), "assert_cell");
+        assertEquals(SRecCommandProcessor.toCommandName("IFrameCloseCommand"), "iframe_close");
+        assertEquals(SRecCommandProcessor.toCommandName("Click"), "click");
+        assertEquals(SRecCommandProcessor.toCommandName("Command"), "command");
+    }
+
+    public void testIndex() throws IOException {
+        File dir = createTempDir();
+        File out = new File(dir, "classes");
+        assertTrue(compile(out, writeSource(dir, "com/github/srec/command/SRecCommand.java", ANNOTATION_SOURCE),
+                writeCommand(dir, "FooCommand", ""), writeCommand(dir, "BarCommand", "bar_baz"),
+                writeSource(dir, "a/Outer.java", "package a;\npublic class Outer {\n"
+                        + "@com.github.srec.command.SRecCommand public static class InnerCommand {}\n}"),
+                writeSource(dir, "a/Plain.java", "package a;\npublic class Plain {}")));
+        assertEquals(readIndex(out), Arrays.asList("bar_baz=a.BarCommand", "foo=a.FooCommand",
+                "inner=a.Outer$InnerCommand"));
+    }
+
+    public void testIncrementalBuild() throws IOException {
+        File dir = createTempDir();
+        File out = new File(dir, "classes");
+        assertTrue(compile(out, writeSource(dir, "com/github/srec/command/SRecCommand.java", ANNOTATION_SOURCE),
+                writeCommand(dir, "FooCommand", ""), writeCommand(dir, "BarCommand", "bar_baz"),
+                writeCommand(dir, "BazCommand", "")));
+
+        // Only a new command is compiled, the others are kept
+        assertTrue(compile(out, writeCommand(dir, "QuxCommand", "")));
+        assertEquals(readIndex(out), Arrays.asList("bar_baz=a.BarCommand", "baz=a.BazCommand", "foo=a.FooCommand",
+                "qux=a.QuxCommand"));
+
+        // A deleted, a renamed and an unannotated command are dropped
+        assertTrue(new File(out, "a/FooCommand.class").delete());
+        assertTrue(compile(out, writeCommand(dir, "BarCommand", "bar"),
+                writeSource(dir, "a/BazCommand.java", "package a;\npublic class BazCommand {}")));
+        assertEquals(readIndex(out), Arrays.asList("bar=a.BarCommand", "qux=a.QuxCommand"));
+
+        // Commands are also dropped when no annotated class is compiled
+        assertTrue(compile(out, writeSource(dir, "a/QuxCommand.java", "package a;\npublic class QuxCommand {}")));
+        assertEquals(readIndex(out), Arrays.asList("bar=a.BarCommand"));
+        assertTrue(new File(out, "a/BarCommand.class").delete());
+        assertTrue(compile(out, writeSource(dir, "a/Plain.java", "package a;\npublic class Plain {}")));
+        assertEquals(readIndex(out), Collections.<String>emptyList());
+    }
+
+    public void testNoCommands() throws IOException {
+        File dir = createTempDir();
+        File out = new File(dir, "classes");
+        assertTrue(compile(out, writeSource(dir, "a/Plain.java", "package a;\npublic class Plain {}")));
+        assertFalse(new File(out, SRecCommandProcessor.INDEX_RESOURCE).exists());
+    }
+
+    public void testAbstractCommand() throws IOException {
+        File dir = createTempDir();
+        File out = new File(dir, "classes");
+        assertFalse(compile(out, writeSource(dir, "com/github/srec/command/SRecCommand.java", ANNOTATION_SOURCE),
+                writeSource(dir, "a/AbstractCommand.java",
+                        "package a;\n@com.github.srec.command.SRecCommand public abstract class AbstractCommand {}")));
+    }
+
+    private static boolean compile(File out, File... sources) throws IOException {
+        out.mkdirs();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            // The diagnostics are collected so that expected errors are not printed
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager,
+                    new DiagnosticCollector<JavaFileObject>(),
+                    Arrays.asList("-d", out.getPath(), "-cp", out.getPath()), null,
+                    fileManager.getJavaFileObjects(sources));
+            task.setProcessors(Collections.singletonList(new SRecCommandProcessor()));
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    private static File writeCommand(File dir, String className, String name) throws IOException {
+        return writeSource(dir, "a/" + className + ".java", "package a;\n@com.github.srec.command.SRecCommand(\""
+                + name + "\") public class " + className + " {}");
+    }
+
+    private static File writeSource(File dir, String path, String source) throws IOException {
+        File file = new File(new File(dir, "src"), path);
+        file.getParentFile().mkdirs();
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(source);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static List<String> readIndex(File out) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(new File(out, SRecCommandProcessor.INDEX_RESOURCE)));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("srec-processor", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Could not create " + dir);
+        return dir;
+    }
+}